@@ -25,6 +25,8 @@
 package net.jadedmc.jadedchat;
 
 import net.jadedmc.jadedchat.features.channels.channel.ChatChannel;
+import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 
 import java.io.File;
@@ -85,6 +87,27 @@ public class JadedChat {
         return plugin.channelManager().getLoadedChannels();
     }
 
+    /**
+     * Get all online players within a given range of a location.
+     * <b>Internal Use Only</b>
+     * @param location Location to measure from.
+     * @param range Range (in blocks) to look for players in.
+     * @return All players in range.
+     */
+    public static Collection<Player> getNearbyPlayers(Location location, int range) {
+        return plugin.channelManager().playerGrid().nearby(location, range);
+    }
+
+    /**
+     * Get all online players in a world.
+     * <b>Internal Use Only</b>
+     * @param world World to get the players of.
+     * @return All players in the world.
+     */
+    public static Collection<Player> getPlayers(World world) {
+        return plugin.channelManager().getPlayers(world);
+    }
+
     /**
      * Gets the configured server name.
      * @return Configured server name.
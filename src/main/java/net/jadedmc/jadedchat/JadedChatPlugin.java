@@ -31,10 +31,7 @@ import net.jadedmc.jadedchat.features.channels.events.ChannelBungeeReceiveEvent;
 import net.jadedmc.jadedchat.features.emotes.EmoteManager;
 import net.jadedmc.jadedchat.features.filter.FilterManager;
 import net.jadedmc.jadedchat.features.messaging.MessageManager;
-import net.jadedmc.jadedchat.listeners.AsyncPlayerChatListener;
-import net.jadedmc.jadedchat.listeners.PlayerJoinListener;
-import net.jadedmc.jadedchat.listeners.PlayerQuitListener;
-import net.jadedmc.jadedchat.listeners.ReloadListener;
+import net.jadedmc.jadedchat.listeners.*;
 import net.jadedmc.jadedchat.settings.HookManager;
 import net.jadedmc.jadedchat.settings.ConfigManager;
 import net.jadedmc.jadedchat.utils.ChatUtils;
@@ -87,6 +84,27 @@ public class JadedChatPlugin extends JavaPlugin implements PluginMessageListener
         Bukkit.getPluginManager().registerEvents(new AsyncPlayerChatListener(this), this);
         Bukkit.getPluginManager().registerEvents(new PlayerJoinListener(this), this);
         Bukkit.getPluginManager().registerEvents(new PlayerQuitListener(this), this);
+        Bukkit.getPluginManager().registerEvents(new PlayerMoveListener(this), this);
+        Bukkit.getPluginManager().registerEvents(new PlayerTeleportListener(this), this);
+        Bukkit.getPluginManager().registerEvents(new PlayerChangedWorldListener(this), this);
+        Bukkit.getPluginManager().registerEvents(new PlayerRespawnListener(this), this);
+        Bukkit.getPluginManager().registerEvents(new VehicleMoveListener(this), this);
+
+        // Keeps channel permissions up to date.
+        // LuckPerms tells us when permissions change. Without it, they are slowly re-checked in the background, if enabled.
+        if(this.hookManager.useLuckPerms()) {
+            new LuckPermsListener(this);
+        }
+        else {
+            int refreshSeconds = configManager.getConfig().getInt("PermissionRefresh", 60);
+
+            if(refreshSeconds > 0) {
+                getServer().getScheduler().runTaskTimer(this, new PermissionRefresher(this, refreshSeconds * 20), 1, 1);
+            }
+        }
+
+        // Saves filter rule counters every 5 minutes, so they are not lost if the server crashes.
+        getServer().getScheduler().runTaskTimerAsynchronously(this, () -> filterManager.saveStatistics(), 6000, 6000);
 
         // Supports BetterReload if installed.
         if(this.hookManager.useBetterReload()) getServer().getPluginManager().registerEvents(new ReloadListener(this), this);
@@ -107,6 +125,8 @@ public class JadedChatPlugin extends JavaPlugin implements PluginMessageListener
 
     @Override
     public void onDisable() {
+        channelManager.chatExecutor().shutdown();
+        filterManager.saveStatistics();
         ChatUtils.disable();
     }
 
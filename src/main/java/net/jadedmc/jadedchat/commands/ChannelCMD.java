@@ -67,7 +67,7 @@ public class ChannelCMD implements CommandExecutor, TabCompleter {
         ChatChannel channel = plugin.channelManager().getChannel(args[0]);
 
         // Makes sure the player has access to the channel.
-        if(!player.hasPermission(channel.permission()) && !channel.permission().equalsIgnoreCase("")) {
+        if(!channel.canUse(player)) {
             ChatUtils.chat(player, plugin.getConfigManager().getMessage(Message.CHANNEL_NO_PERMISSION));
             return true;
         }
@@ -112,7 +112,7 @@ public class ChannelCMD implements CommandExecutor, TabCompleter {
 
             // Find all channels the player has permission to use.
             for(ChatChannel channel : plugin.channelManager().getLoadedChannels()) {
-                if(sender.hasPermission(channel.permission())) {
+                if(canUse(sender, channel)) {
                     channels.add(channel.name());
                 }
             }
@@ -127,7 +127,7 @@ public class ChannelCMD implements CommandExecutor, TabCompleter {
             String start = args[0];
 
             for(ChatChannel channel : plugin.channelManager().getLoadedChannels()) {
-                if(sender.hasPermission(channel.permission()) && channel.name().toLowerCase().startsWith(start.toLowerCase())) {
+                if(canUse(sender, channel) && channel.name().toLowerCase().startsWith(start.toLowerCase())) {
                     channels.add(channel.name());
                 }
             }
@@ -138,4 +138,19 @@ public class ChannelCMD implements CommandExecutor, TabCompleter {
         // Otherwise, send an empty list.
         return Collections.emptyList();
     }
+
+    /**
+     * Check if a command sender can use a channel.
+     * Players are looked up in the channel members, to avoid checking permissions on every key press.
+     * @param sender Command sender.
+     * @param channel Channel to check.
+     * @return Whether they can use the channel.
+     */
+    private boolean canUse(CommandSender sender, ChatChannel channel) {
+        if(sender instanceof Player player) {
+            return channel.canUse(player);
+        }
+
+        return channel.permission().equalsIgnoreCase("") || sender.hasPermission(channel.permission());
+    }
 }
\ No newline at end of file
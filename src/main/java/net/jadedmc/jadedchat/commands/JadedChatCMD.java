@@ -27,9 +27,17 @@ package net.jadedmc.jadedchat.commands;
 import net.jadedmc.jadedchat.JadedChatPlugin;
 import net.jadedmc.jadedchat.features.channels.channel.ChatChannel;
 import net.jadedmc.jadedchat.features.channels.fomat.ChatFormat;
+import net.jadedmc.jadedchat.features.filter.Filter;
+import net.jadedmc.jadedchat.features.filter.FilterReplay;
+import net.jadedmc.jadedchat.features.filter.FilterRule;
+import net.jadedmc.jadedchat.features.filter.NgramPrefilter;
+import net.jadedmc.jadedchat.features.filter.VerdictCache;
+import net.jadedmc.jadedchat.features.filter.filters.RegexFilter;
 import net.jadedmc.jadedchat.settings.Message;
 import net.jadedmc.jadedchat.utils.ChatUtils;
 import net.jadedmc.jadedchat.utils.StringUtils;
+import net.jadedmc.jadedchat.utils.TimingStat;
+import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -37,10 +45,16 @@ import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class runs the /jadedchat command, which is the main admin command for the plugin.
@@ -88,8 +102,11 @@ public class JadedChatCMD implements CommandExecutor, TabCompleter {
             // Reloads all plugin configuration files.
             case "reload" -> {
                 plugin.getConfigManager().reloadConfig();
-                plugin.channelManager().loadChannels();
                 plugin.emoteManager().registerEmotes();
+                plugin.channelManager().loadChannels();
+                plugin.filterManager().loadFilters();
+                plugin.filterManager().updatePermissions();
+                plugin.channelManager().chatExecutor().loadSettings();
                 ChatUtils.chat(sender, "<green><bold>JadedChat</bold> <dark_gray>» <green>Configuration files reloaded successfully!");
             }
 
@@ -101,6 +118,68 @@ public class JadedChatCMD implements CommandExecutor, TabCompleter {
                 }
             }
 
+            // Displays performance statistics.
+            case "stats" -> {
+                TimingStat broadcasts = ChatUtils.broadcastTimings();
+                TimingStat sends = ChatUtils.sendTimings();
+                long viewers = ChatUtils.broadcastViewers();
+                double perViewer = viewers == 0 ? 0 : sends.totalNanos() / 1000.0 / viewers;
+
+                ChatUtils.chat(sender, "<green><bold>JadedChat</bold> <dark_gray>» <green>Performance Statistics:");
+                ChatUtils.chat(sender, "  <dark_gray>➤ <gray>Broadcasts: <white>" + broadcasts.count() + " messages <gray>to <white>" + viewers + " viewers");
+                ChatUtils.chat(sender, "  <dark_gray>➤ <gray>Serialization: <white>" + String.format("%.2f", broadcasts.averageMicros()) + "µs <gray>per message");
+                ChatUtils.chat(sender, "  <dark_gray>➤ <gray>Sending: <white>" + String.format("%.2f", sends.averageMicros()) + "µs <gray>per message, <white>" + String.format("%.2f", perViewer) + "µs <gray>per viewer");
+
+                // Shows how often clean messages skip the expensive filters.
+                NgramPrefilter prefilter = plugin.filterManager().prefilter();
+                if(prefilter != null) {
+                    long checked = prefilter.checked();
+                    double skipRate = checked == 0 ? 0 : prefilter.skipped() * 100.0 / checked;
+                    ChatUtils.chat(sender, "  <dark_gray>➤ <gray>Filter Prefilter: <white>" + prefilter.skipped() + "<gray>/<white>" + checked + " <gray>messages skipped (<white>" + String.format("%.1f", skipRate) + "%<gray>)");
+                }
+
+                // Shows how often messages skip the stateless filters thanks to the verdict cache.
+                VerdictCache cache = plugin.filterManager().cache();
+                if(cache != null) {
+                    long lookups = cache.hits() + cache.misses();
+                    double hitRate = lookups == 0 ? 0 : cache.hits() * 100.0 / lookups;
+                    ChatUtils.chat(sender, "  <dark_gray>➤ <gray>Filter Cache: <white>" + cache.hits() + "<gray>/<white>" + lookups + " <gray>hits (<white>" + String.format("%.1f", hitRate) + "%<gray>), <white>" + cache.size() + " <gray>cached");
+                }
+
+                // Shows how much of each format is pre-rendered.
+                ChatUtils.chat(sender, "<green><bold>JadedChat</bold> <dark_gray>» <green>Format Sections <gray>(static/dynamic)<green>:");
+                for(ChatChannel channel : plugin.channelManager().getLoadedChannels()) {
+                    for(ChatFormat format : channel.formats()) {
+                        ChatUtils.chat(sender, "  <dark_gray>➤ <gray>" + channel.name() + "/" + format.id() + ": <white>" + format.staticSections() + "<gray>/<white>" + format.dynamicSections());
+                    }
+                }
+            }
+
+            // Displays statistics for each filter rule, or replays a corpus of messages through the filters.
+            case "filter" -> {
+                if(args.length >= 2 && args[1].equalsIgnoreCase("stats")) {
+                    filterStats(sender);
+                    return true;
+                }
+
+                if(args.length < 3 || !args[1].equalsIgnoreCase("replay")) {
+                    ChatUtils.chat(sender, "<red><bold>Usage</bold> <dark_gray>» <red>/jc filter [stats|replay] [corpus] [config]");
+                    return true;
+                }
+
+                // Both files are read from the plugin folder, and nowhere else.
+                File corpus = dataFile(args[2]);
+                File compare = args.length > 3 ? dataFile(args[3]) : null;
+                if(corpus == null || (args.length > 3 && compare == null)) {
+                    ChatUtils.chat(sender, "<red><bold>Error</bold> <dark_gray>» <red>That file does not exist in the plugin folder!");
+                    return true;
+                }
+
+                // Replaying can take a while, so it is done off the main thread.
+                ChatUtils.chat(sender, "<green><bold>JadedChat</bold> <dark_gray>» <green>Replaying " + corpus.getName() + "...");
+                plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> new FilterReplay(plugin).run(sender, corpus, compare));
+            }
+
             // Displays the plugin's current version.
             case "version" ->
                     ChatUtils.chat(sender, "<green><bold>JadedChat</bold> <dark_gray>» <green>Current version: <white>" + plugin.getDescription().getVersion());
@@ -129,7 +208,10 @@ public class JadedChatCMD implements CommandExecutor, TabCompleter {
                 ChatUtils.chat(sender, "<center><dark_gray><st>        </st> <green><bold>JadedChat <dark_gray><st>        </st> ");
                 ChatUtils.chat(sender, "");
                 ChatUtils.chat(sender, "  <dark_gray>» <green>/jc channels <dark_gray>- <white>Lists all loaded channels.");
+                ChatUtils.chat(sender, "  <dark_gray>» <green>/jc filter stats <dark_gray>- <white>Displays filter rule statistics.");
+                ChatUtils.chat(sender, "  <dark_gray>» <green>/jc filter replay <dark_gray>- <white>Tests filters against a file of messages.");
                 ChatUtils.chat(sender, "  <dark_gray>» <green>/jc reload <dark_gray>- <white>Reloads all configuration files.");
+                ChatUtils.chat(sender, "  <dark_gray>» <green>/jc stats <dark_gray>- <white>Displays performance statistics.");
                 ChatUtils.chat(sender, "  <dark_gray>» <green>/jc test <dark_gray>- <white>Send a message with a given channel & format.");
                 ChatUtils.chat(sender, "  <dark_gray>» <green>/jc version <dark_gray>- <white>Displays the plugin version.");
                 ChatUtils.chat(sender, "");
@@ -152,7 +234,16 @@ public class JadedChatCMD implements CommandExecutor, TabCompleter {
 
         // Lists all subcommands if the player hasn't picked one yet.
         if(args.length < 2) {
-            return Arrays.asList("channels", "help", "reload", "test", "version");
+            return Arrays.asList("channels", "filter", "help", "reload", "stats", "test", "version");
+        }
+
+        // Runs tab complete for the "filter" sub command.
+        if(args[0].equalsIgnoreCase("filter")) {
+            if(args.length < 3) {
+                return Arrays.asList("replay", "stats");
+            }
+
+            return Collections.emptyList();
         }
 
         // Runs tab complete for the "test" sub command.
@@ -181,4 +272,82 @@ public class JadedChatCMD implements CommandExecutor, TabCompleter {
         // Otherwise, send an empty list.
         return Collections.emptyList();
     }
-}
\ No newline at end of file
+
+    /**
+     * Displays how long each filter takes, and which rules block the most messages, take the longest, or never match.
+     * @param sender Who to display the statistics to.
+     */
+    private void filterStats(CommandSender sender) {
+        // Counters are read once, since they can change while being sorted.
+        record RuleStat(String filter, String rule, long hits, long checks, double micros) {}
+
+        List<RuleStat> rules = new ArrayList<>();
+        for(Filter filter : plugin.filterManager().getFilters()) {
+            for(FilterRule rule : filter.rules()) {
+                rules.add(new RuleStat(filter.name(), MiniMessage.miniMessage().escapeTags(rule.rule()), rule.hits(), rule.timings().count(), rule.timings().averageMicros()));
+            }
+        }
+
+        long days = TimeUnit.MILLISECONDS.toDays(System.currentTimeMillis() - plugin.filterManager().statistics().since());
+        ChatUtils.chat(sender, "<green><bold>JadedChat</bold> <dark_gray>» <green>Filter Statistics <gray>(" + days + " days)<green>:");
+
+        // Shows how long each filter takes, in the order they run.
+        for(Filter filter : plugin.filterManager().getFilters()) {
+            ChatUtils.chat(sender, "  <dark_gray>➤ <gray>" + filter.name() + ": <white>" + String.format("%.2f", filter.timings().averageMicros()) + "µs <gray>per message, <white>" + filter.timings().count() + " <gray>checked");
+
+            // Messages the regex filter ran out of time on are shown as well.
+            if(filter instanceof RegexFilter regexFilter && regexFilter.timedOut().hits() > 0) {
+                ChatUtils.chat(sender, "  <dark_gray>➤ <gray>" + filter.name() + " timeouts: <white>" + regexFilter.timedOut().hits() + " <gray>messages " + (regexFilter.blockOnTimeout() ? "blocked" : "let through"));
+            }
+        }
+
+        // Shows the rules that block the most messages.
+        ChatUtils.chat(sender, "<green><bold>JadedChat</bold> <dark_gray>» <green>Hottest Rules:");
+        rules.stream()
+                .filter(rule -> rule.hits() > 0)
+                .sorted(Comparator.comparingLong(RuleStat::hits).reversed())
+                .limit(5)
+                .forEach(rule -> ChatUtils.chat(sender, "  <dark_gray>➤ <gray>" + rule.filter() + ": <white>" + rule.rule() + " <gray>(<white>" + rule.hits() + " <gray>hits)"));
+
+        // Shows the rules that take the longest to check.
+        ChatUtils.chat(sender, "<green><bold>JadedChat</bold> <dark_gray>» <green>Slowest Rules:");
+        rules.stream()
+                .filter(rule -> rule.checks() > 0)
+                .sorted(Comparator.comparingDouble(RuleStat::micros).reversed())
+                .limit(5)
+                .forEach(rule -> ChatUtils.chat(sender, "  <dark_gray>➤ <gray>" + rule.filter() + ": <white>" + rule.rule() + " <gray>(<white>" + String.format("%.2f", rule.micros()) + "µs <gray>over <white>" + rule.checks() + " <gray>checks)"));
+
+        // Shows the rules that have never blocked a message, which may be safe to remove.
+        List<RuleStat> unused = rules.stream().filter(rule -> rule.hits() == 0).toList();
+        ChatUtils.chat(sender, "<green><bold>JadedChat</bold> <dark_gray>» <green>Never Matched: <white>" + unused.size() + "<gray>/<white>" + rules.size() + " <green>rules");
+        for(int i = 0; i < Math.min(unused.size(), 10); i++) {
+            ChatUtils.chat(sender, "  <dark_gray>➤ <gray>" + unused.get(i).filter() + ": <white>" + unused.get(i).rule());
+        }
+
+        if(unused.size() > 10) {
+            ChatUtils.chat(sender, "  <dark_gray>➤ <gray>and <white>" + (unused.size() - 10) + " <gray>more. The full counts are saved in filter-stats.yml.");
+        }
+    }
+
+    /**
+     * Finds a file inside the plugin folder.
+     * Paths are resolved with links followed, so "../" and symbolic links cannot reach files outside of it.
+     * @param name Path of the file, relative to the plugin folder.
+     * @return The file, or null if it does not exist or is outside the plugin folder.
+     */
+    private File dataFile(String name) {
+        try {
+            Path folder = plugin.getDataFolder().toPath().toRealPath();
+            Path path = folder.resolve(name).normalize().toRealPath();
+
+            if(!path.startsWith(folder) || !path.toFile().isFile()) {
+                return null;
+            }
+
+            return path.toFile();
+        }
+        catch (IOException | InvalidPathException exception) {
+            return null;
+        }
+    }
+}
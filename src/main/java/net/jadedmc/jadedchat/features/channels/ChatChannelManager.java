@@ -29,25 +29,53 @@ import net.jadedmc.jadedchat.JadedChatPlugin;
 import net.jadedmc.jadedchat.features.channels.channel.ChatChannel;
 import net.jadedmc.jadedchat.features.channels.channel.ChatChannelBuilder;
 import net.jadedmc.jadedsync.api.JadedSyncAPI;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 
 import java.io.File;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ChatChannelManager {
     private final JadedChatPlugin plugin;
-    private final Map<String, ChatChannel> channelIDs = new HashMap<>();
-    private final Collection<ChatChannel> loadedChannels = new HashSet<>();
-    private final Map<UUID, String> playerChannels = new HashMap<>();
+    private final Map<String, ChatChannel> channelIDs = new ConcurrentHashMap<>();
+    private final Collection<ChatChannel> loadedChannels = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, String> playerChannels = new ConcurrentHashMap<>();
+    private final PlayerGrid playerGrid = new PlayerGrid();
+    private final Map<UUID, Set<Player>> worldPlayers = new ConcurrentHashMap<>();
+    private final ChatExecutor chatExecutor;
     private ChatChannel defaultChannel;
 
     public ChatChannelManager(JadedChatPlugin plugin) {
         this.plugin = plugin;
+        chatExecutor = new ChatExecutor(plugin);
         loadChannels();
+
+        // Adds players who are already online, in case the plugin was loaded late.
+        for(Player player : Bukkit.getOnlinePlayers()) {
+            playerGrid.update(player, player.getLocation());
+            worldPlayers.computeIfAbsent(player.getWorld().getUID(), key -> ConcurrentHashMap.newKeySet()).add(player);
+        }
     }
 
+    /**
+     * Adds a player to the location grid and the channels they have access to.
+     * Used when they join.
+     * @param player Player to add.
+     */
+    public void addPlayer(Player player) {
+        playerGrid.update(player, player.getLocation());
+        worldPlayers.computeIfAbsent(player.getWorld().getUID(), key -> ConcurrentHashMap.newKeySet()).add(player);
+        updatePermissions(player);
+    }
+
+    /**
+     * Registers a channel, and adds everyone online who can use it as a member.
+     * @param channel Channel to register.
+     */
     public void loadChannel(ChatChannel channel) {
         loadedChannels.add(channel);
         channelIDs.put(channel.name(), channel);
@@ -60,6 +88,11 @@ public class ChatChannelManager {
         if(channel.isDefaultChannel()) {
             defaultChannel = channel;
         }
+
+        // Channels start without members, so they are found once the channel is fully set up.
+        for(Player player : Bukkit.getOnlinePlayers()) {
+            channel.updateMember(player);
+        }
     }
 
     /**
@@ -119,13 +152,7 @@ public class ChatChannelManager {
      * @return Corresponding channel.
      */
     public ChatChannel getChannel(String name) {
-        name = name.toUpperCase();
-
-        if(!channelIDs.containsKey(name)) {
-            return null;
-        }
-
-        return channelIDs.get(name);
+        return channelIDs.get(name.toUpperCase());
     }
 
     /**
@@ -134,13 +161,23 @@ public class ChatChannelManager {
      * @return The channel they are currently using. Returns the default channel if not saved.
      */
     public ChatChannel getChannel(Player player) {
-        if(playerChannels.containsKey(player.getUniqueId())) {
-            return getChannel(playerChannels.get(player.getUniqueId()));
+        String channel = playerChannels.get(player.getUniqueId());
+
+        if(channel != null) {
+            return getChannel(channel);
         }
 
         return defaultChannel;
     }
 
+    /**
+     * Get the executor used to process chat messages.
+     * @return Chat executor.
+     */
+    public ChatExecutor chatExecutor() {
+        return chatExecutor;
+    }
+
     /**
      * Get the default channel chat should use.
      * @return Default chat channel.
@@ -158,12 +195,75 @@ public class ChatChannelManager {
     }
 
     /**
-     * Remove a player from the player channels map.
+     * Get all online players in a world.
+     * @param world World to get the players of.
+     * @return All players in the world.
+     */
+    public Collection<Player> getPlayers(World world) {
+        Set<Player> players = worldPlayers.get(world.getUID());
+
+        if(players == null) {
+            return Collections.emptySet();
+        }
+
+        return Collections.unmodifiableSet(players);
+    }
+
+    /**
+     * Get the grid used to look up players by location.
+     * @return Player location grid.
+     */
+    public PlayerGrid playerGrid() {
+        return playerGrid;
+    }
+
+    /**
+     * Remove a player from the player channels map and location grid.
      * Used when they log off.
      * @param player Player to remove.
      */
     public void removePlayer(Player player) {
         playerChannels.remove(player.getUniqueId());
+        playerGrid.remove(player);
+        removeFromWorld(player, player.getWorld());
+
+        for(ChatChannel channel : loadedChannels) {
+            channel.removeMember(player);
+            channel.clearFormat(player);
+        }
+    }
+
+    /**
+     * Moves a player to the world they are currently in.
+     * Used when they change worlds.
+     * @param player Player who changed worlds.
+     * @param from World they were in before.
+     */
+    public void updateWorld(Player player, World from) {
+        removeFromWorld(player, from);
+        worldPlayers.computeIfAbsent(player.getWorld().getUID(), key -> ConcurrentHashMap.newKeySet()).add(player);
+    }
+
+    /**
+     * Re-checks which channels every online player has access to.
+     * Used when permissions may have changed for everyone.
+     */
+    public void updatePermissions() {
+        for(Player player : Bukkit.getOnlinePlayers()) {
+            updatePermissions(player);
+        }
+    }
+
+    /**
+     * Re-checks which channels a player has access to, and which format they use in each.
+     * Used when their permissions change.
+     * @param player Player to update.
+     */
+    public void updatePermissions(Player player) {
+        for(ChatChannel channel : loadedChannels) {
+            channel.updateMember(player);
+            channel.clearFormat(player);
+        }
     }
 
     /**
@@ -178,4 +278,24 @@ public class ChatChannelManager {
             JadedSyncAPI.getPlayer(player.getUniqueId()).updateIntegrations();
         }
     }
+
+    /**
+     * Removes a player from the stored players of a world.
+     * @param player Player to remove.
+     * @param world World to remove them from.
+     */
+    private void removeFromWorld(Player player, World world) {
+        Set<Player> players = worldPlayers.get(world.getUID());
+
+        if(players == null) {
+            return;
+        }
+
+        players.remove(player);
+
+        // Prevent empty worlds from piling up.
+        if(players.isEmpty()) {
+            worldPlayers.remove(world.getUID());
+        }
+    }
 }
\ No newline at end of file
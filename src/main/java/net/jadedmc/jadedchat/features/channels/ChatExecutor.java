@@ -0,0 +1,216 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.features.channels;
+
+import net.jadedmc.jadedchat.JadedChatPlugin;
+import net.jadedmc.jadedchat.features.channels.channel.ChatChannel;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs chat processing, either on the main thread or on a pool of worker threads.
+ * Messages sent in the same channel are always processed in the order they were sent.
+ */
+public class ChatExecutor {
+    private final JadedChatPlugin plugin;
+    private final ExecutorService workers;
+    private final Map<String, ChannelQueue> channelQueues = new ConcurrentHashMap<>();
+    private volatile boolean async;
+    private volatile boolean syncEvents;
+    private volatile List<String> syncPlaceholders = new ArrayList<>();
+
+    /**
+     * Creates the executor.
+     * @param plugin Instance of the plugin.
+     */
+    public ChatExecutor(JadedChatPlugin plugin) {
+        this.plugin = plugin;
+
+        int threads = Math.max(1, plugin.getConfigManager().getConfig().getInt("AsyncChat.threads", 2));
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "JadedChat Worker #" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        loadSettings();
+    }
+
+    /**
+     * Processes a task for a channel.
+     * Runs on a worker thread if async chat is enabled, otherwise on the main thread.
+     * @param channel Channel the task is for.
+     * @param task Task to run.
+     */
+    public void execute(ChatChannel channel, Runnable task) {
+        if(!async) {
+            plugin.getServer().getScheduler().scheduleSyncDelayedTask(plugin, task, 0);
+            return;
+        }
+
+        channelQueues.computeIfAbsent(channel.name(), key -> new ChannelQueue()).add(task);
+    }
+
+    /**
+     * Get if a piece of text contains a placeholder that can only be processed on the main thread.
+     * @param text Text to check.
+     * @return Whether the text needs the main thread.
+     */
+    public boolean needsMainThread(String text) {
+        for(String placeholder : syncPlaceholders) {
+            if(text.contains(placeholder)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Loads the async chat settings from config.yml.
+     * The number of threads only changes on restart.
+     */
+    public void loadSettings() {
+        FileConfiguration config = plugin.getConfigManager().getConfig();
+        async = config.getBoolean("AsyncChat.enabled", false);
+        syncEvents = config.getBoolean("AsyncChat.syncEvents", true);
+
+        List<String> placeholders = new ArrayList<>();
+        for(String placeholder : config.getStringList("AsyncChat.syncPlaceholders")) {
+            placeholders.add("%" + placeholder + "_");
+        }
+        syncPlaceholders = placeholders;
+    }
+
+    /**
+     * Runs a task on the main thread and waits for its result.
+     * If the main thread does not respond in time, the fallback is returned instead.
+     * @param callable Task to run.
+     * @param fallback Result to use if the task could not be run.
+     * @return Result of the task.
+     * @param <T> Type of the result.
+     */
+    public <T> T callSync(Callable<T> callable, T fallback) {
+        if(Bukkit.isPrimaryThread()) {
+            try {
+                return callable.call();
+            }
+            catch (Exception exception) {
+                exception.printStackTrace();
+                return fallback;
+            }
+        }
+
+        try {
+            return plugin.getServer().getScheduler().callSyncMethod(plugin, callable).get(5, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return fallback;
+        }
+        catch (ExecutionException | TimeoutException exception) {
+            exception.printStackTrace();
+            return fallback;
+        }
+    }
+
+    /**
+     * Runs a task on the main thread if events should be called synchronously.
+     * Otherwise, runs it on the current thread.
+     * @param task Task to run.
+     */
+    public void runEvents(Runnable task) {
+        if(syncEvents && !Bukkit.isPrimaryThread()) {
+            plugin.getServer().getScheduler().scheduleSyncDelayedTask(plugin, task, 0);
+            return;
+        }
+
+        task.run();
+    }
+
+    /**
+     * Stops all worker threads.
+     * Called when the plugin is disabled.
+     */
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Queue of tasks for a single channel.
+     * Only one task from the queue runs at a time, so messages stay in order.
+     */
+    private class ChannelQueue {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+        private boolean running = false;
+
+        /**
+         * Adds a task to the queue, and starts it if nothing else is running.
+         * @param task Task to add.
+         */
+        private synchronized void add(Runnable task) {
+            tasks.add(task);
+
+            if(!running) {
+                running = true;
+                workers.execute(this::runNext);
+            }
+        }
+
+        /**
+         * Runs the next task in the queue, then hands the following one back to the pool.
+         */
+        private void runNext() {
+            Runnable task;
+            synchronized(this) {
+                task = tasks.poll();
+
+                if(task == null) {
+                    running = false;
+                    return;
+                }
+            }
+
+            try {
+                task.run();
+            }
+            catch (Exception exception) {
+                exception.printStackTrace();
+            }
+
+            try {
+                workers.execute(this::runNext);
+            }
+            catch (RejectedExecutionException exception) {
+                // The plugin is shutting down.
+            }
+        }
+    }
+}
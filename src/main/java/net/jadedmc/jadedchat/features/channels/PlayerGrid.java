@@ -0,0 +1,220 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.features.channels;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of where online players are, bucketed into chunk-sized cells per world.
+ * Used to find the players in range of a message without measuring the distance to everyone online.
+ * Only updated from the main thread, but can be read from chat worker threads.
+ */
+public class PlayerGrid {
+    // Cells are 16x16 blocks, the same size as a chunk.
+    private static final int CELL_SHIFT = 4;
+
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private final Map<UUID, Map<Long, Set<Entry>>> worlds = new ConcurrentHashMap<>();
+
+    /**
+     * Get all players within a given range of a location.
+     * Only looks at cells that overlap the range, and compares squared distances.
+     * @param center Location to measure from.
+     * @param range Range (in blocks) to look for players in.
+     * @return All players in range, in the same world as the location.
+     */
+    public Collection<Player> nearby(Location center, int range) {
+        Map<Long, Set<Entry>> cells = worlds.get(center.getWorld().getUID());
+        if(cells == null) {
+            return new ArrayList<>();
+        }
+
+        double x = center.getX();
+        double y = center.getY();
+        double z = center.getZ();
+        double rangeSquared = (double) range * range;
+
+        int minCellX = ((int) Math.floor(x - range)) >> CELL_SHIFT;
+        int maxCellX = ((int) Math.floor(x + range)) >> CELL_SHIFT;
+        int minCellZ = ((int) Math.floor(z - range)) >> CELL_SHIFT;
+        int maxCellZ = ((int) Math.floor(z + range)) >> CELL_SHIFT;
+
+        Collection<Player> players = new ArrayList<>();
+
+        // If the range covers more cells than are occupied, it is cheaper to just check every occupied cell.
+        long cellsInRange = (long) (maxCellX - minCellX + 1) * (maxCellZ - minCellZ + 1);
+        if(cellsInRange > cells.size()) {
+            for(Set<Entry> cell : cells.values()) {
+                addInRange(cell, players, x, y, z, rangeSquared);
+            }
+
+            return players;
+        }
+
+        for(int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for(int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                Set<Entry> cell = cells.get(cellKey(cellX, cellZ));
+
+                if(cell != null) {
+                    addInRange(cell, players, x, y, z, rangeSquared);
+                }
+            }
+        }
+
+        return players;
+    }
+
+    /**
+     * Removes a player from the grid.
+     * Used when they log off.
+     * @param player Player to remove.
+     */
+    public void remove(Player player) {
+        Entry entry = entries.remove(player.getUniqueId());
+
+        if(entry != null) {
+            removeFromCell(entry);
+        }
+    }
+
+    /**
+     * Updates the stored location of a player.
+     * Only moves them between cells when they cross a cell border or change worlds.
+     * @param player Player who moved.
+     * @param location Their new location.
+     */
+    public void update(Player player, Location location) {
+        World world = location.getWorld();
+        if(world == null) {
+            return;
+        }
+
+        long cell = cellKey(location.getBlockX() >> CELL_SHIFT, location.getBlockZ() >> CELL_SHIFT);
+        Entry entry = entries.get(player.getUniqueId());
+
+        if(entry == null) {
+            entry = new Entry(player);
+            entries.put(player.getUniqueId(), entry);
+        }
+        else if(entry.cell == cell && entry.world.equals(world.getUID())) {
+            // Still in the same cell, so only the coordinates need updating.
+            entry.setPosition(location);
+            return;
+        }
+        else {
+            removeFromCell(entry);
+        }
+
+        entry.world = world.getUID();
+        entry.cell = cell;
+        entry.setPosition(location);
+        worlds.computeIfAbsent(entry.world, key -> new ConcurrentHashMap<>()).computeIfAbsent(cell, key -> ConcurrentHashMap.newKeySet()).add(entry);
+    }
+
+    /**
+     * Adds every player in a cell within range of a point.
+     * @param cell Cell to check.
+     * @param players Collection to add the players to.
+     * @param x X coordinate of the point.
+     * @param y Y coordinate of the point.
+     * @param z Z coordinate of the point.
+     * @param rangeSquared Square of the allowed distance.
+     */
+    private static void addInRange(Set<Entry> cell, Collection<Player> players, double x, double y, double z, double rangeSquared) {
+        for(Entry entry : cell) {
+            double dx = entry.x - x;
+            double dy = entry.y - y;
+            double dz = entry.z - z;
+
+            if(dx * dx + dy * dy + dz * dz <= rangeSquared) {
+                players.add(entry.player);
+            }
+        }
+    }
+
+    /**
+     * Packs the coordinates of a cell into a single key.
+     * @param cellX X coordinate of the cell.
+     * @param cellZ Z coordinate of the cell.
+     * @return Key of the cell.
+     */
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Removes an entry from the cell it is currently in.
+     * Cleans up the cell and world if they end up empty.
+     * @param entry Entry to remove.
+     */
+    private void removeFromCell(Entry entry) {
+        Map<Long, Set<Entry>> cells = worlds.get(entry.world);
+        if(cells == null) {
+            return;
+        }
+
+        Set<Entry> cell = cells.get(entry.cell);
+        if(cell == null) {
+            return;
+        }
+
+        cell.remove(entry);
+
+        if(cell.isEmpty()) {
+            cells.remove(entry.cell);
+
+            if(cells.isEmpty()) {
+                worlds.remove(entry.world);
+            }
+        }
+    }
+
+    /**
+     * The last known position of a player.
+     */
+    private static class Entry {
+        private final Player player;
+        private UUID world;
+        private long cell;
+        private volatile double x;
+        private volatile double y;
+        private volatile double z;
+
+        private Entry(Player player) {
+            this.player = player;
+        }
+
+        private void setPosition(Location location) {
+            x = location.getX();
+            y = location.getY();
+            z = location.getZ();
+        }
+    }
+}
@@ -29,6 +29,7 @@ import com.google.common.io.ByteStreams;
 import github.scarsz.discordsrv.DiscordSRV;
 import net.jadedmc.jadedchat.JadedChat;
 import net.jadedmc.jadedchat.JadedChatPlugin;
+import net.jadedmc.jadedchat.features.channels.ChatExecutor;
 import net.jadedmc.jadedchat.features.channels.events.ChannelBungeeSendEvent;
 import net.jadedmc.jadedchat.features.channels.events.ChannelMessageSendEvent;
 import net.jadedmc.jadedchat.features.channels.fomat.ChatFormat;
@@ -38,12 +39,15 @@ import net.kyori.adventure.text.minimessage.MiniMessage;
 import net.luckperms.api.LuckPerms;
 import net.luckperms.api.LuckPermsProvider;
 import org.bukkit.Bukkit;
+import org.bukkit.World;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Represents a section of chat separated from others.
@@ -53,6 +57,9 @@ public class ChatChannel {
     private String displayName;
     private final Map<String, ChatFormat> chatFormats = new LinkedHashMap<>();
     private final Collection<String> aliases = new ArrayList<>();
+    private final Set<Player> members = ConcurrentHashMap.newKeySet();
+    private final List<ViewerFilter> viewerFilters = new CopyOnWriteArrayList<>();
+    private final Map<UUID, ChatFormat> playerFormats = new ConcurrentHashMap<>();
     private String permission = "";
     private boolean isDefaultChannel = false;
     private boolean useBungeecord = false;
@@ -84,6 +91,9 @@ public class ChatChannel {
      */
     public void addChatFormat(ChatFormat chatFormat) {
         chatFormats.put(chatFormat.id(), chatFormat);
+
+        // A new format could take priority over the ones already resolved.
+        playerFormats.clear();
     }
 
     /**
@@ -95,6 +105,24 @@ public class ChatChannel {
         return aliases;
     }
 
+    /**
+     * Get if a player is allowed to use the channel.
+     * Uses the stored members instead of checking permissions.
+     * @param player Player to check.
+     * @return Whether the player can use the channel.
+     */
+    public boolean canUse(Player player) {
+        return permission.equalsIgnoreCase("") || members.contains(player);
+    }
+
+    /**
+     * Adds an extra check players have to pass to see messages in the channel.
+     * @param viewerFilter Filter to add.
+     */
+    public void addViewerFilter(ViewerFilter viewerFilter) {
+        viewerFilters.add(viewerFilter);
+    }
+
     /**
      * Get how many blocks a message should "travel".
      * @return Range of the channel.
@@ -142,10 +170,29 @@ public class ChatChannel {
 
     /**
      * Get the format a player should be using when chatting in the channel.
+     * Resolved formats are cached until the player's permissions change or they log off.
      * @param player Player to get the format of.
      * @return Proper format.
      */
     public ChatFormat format(Player player) {
+        return playerFormats.computeIfAbsent(player.getUniqueId(), uuid -> resolveFormat(player));
+    }
+
+    /**
+     * Removes the cached format of a player, so it is resolved again on their next message.
+     * Used when their permissions change or they log off.
+     * @param player Player to remove the format of.
+     */
+    public void clearFormat(Player player) {
+        playerFormats.remove(player.getUniqueId());
+    }
+
+    /**
+     * Finds the format a player should be using, using their group and permissions.
+     * @param player Player to find the format of.
+     * @return Proper format.
+     */
+    private ChatFormat resolveFormat(Player player) {
         // Sets the default chat format to "default" in case no permissions found.
         String format = "default";
 
@@ -197,6 +244,15 @@ public class ChatChannel {
         this.isDefaultChannel = isDefaultChannel;
     }
 
+    /**
+     * Get all online players who have permission to use the channel.
+     * Only kept up to date for channels with a permission.
+     * @return Players with the channel permission.
+     */
+    public Collection<Player> members() {
+        return Collections.unmodifiableSet(members);
+    }
+
     /**
      * Get the name of the channel.
      * This acts as the id of the channel.
@@ -217,10 +273,23 @@ public class ChatChannel {
     /**
      * Set the permission node required to use the channel.
      * Defaults to an empty string.
+     * Clears the members, which are added back when the channel is loaded, or by ChatChannelManager.updatePermissions().
      * @param permission Required permission node.
      */
     public void permission(String permission) {
         this.permission = permission;
+
+        // The members were found using the old permission.
+        members.clear();
+    }
+
+    /**
+     * Removes a player from the channel members.
+     * Used when they log off.
+     * @param player Player to remove.
+     */
+    public void removeMember(Player player) {
+        members.remove(player);
     }
 
     /**
@@ -280,14 +349,15 @@ public class ChatChannel {
     }
 
     public void sendTestMessage(JadedChatPlugin plugin, Player player, ChatFormat format, String message) {
+        // Creates the formatted component of the message.
+        // It is created before filtering, so staff can be shown it if the message is silently filtered.
+        Component messageComponent = format.processMessage(plugin, player, message);
+
         // Checks if the message passes the chat filter.
-        if(!plugin.filterManager().passesFilter(player, this, message)) {
+        if(!plugin.filterManager().passesFilter(player, this, message, messageComponent)) {
             return;
         }
 
-        // Creates the formatted component of the message.
-        Component messageComponent = format.processMessage(plugin, player, message);
-
         // Calls the message send event.
         ChannelMessageSendEvent messageEvent = new ChannelMessageSendEvent(player, this, message, messageComponent);
         Bukkit.getPluginManager().callEvent(messageEvent);
@@ -298,7 +368,7 @@ public class ChatChannel {
         }
 
         // Send the message to all channel viewers.
-        messageEvent.getViewers().forEach(viewer -> ChatUtils.chat(viewer, messageComponent));
+        ChatUtils.broadcast(messageEvent.getViewers(), messageComponent);
 
         // Send the message to the console as well
         ChatUtils.chat(Bukkit.getConsoleSender(), Component.text().content("[" + name + "] ").append(messageComponent).build());
@@ -332,64 +402,70 @@ public class ChatChannel {
 
     /**
      * Sends a message to the channel.
+     * The message is filtered and formatted on a worker thread if async chat is enabled.
      * @param player Player who sent the message.
      * @param message Message the player is sending.
      */
     public void sendMessage(JadedChatPlugin plugin, Player player, String message) {
+        ChatExecutor chatExecutor = plugin.channelManager().chatExecutor();
+
+        chatExecutor.execute(this, () -> {
+            // Creates the formatted component of the message.
+            // It is created before filtering, so staff can be shown it if the message is silently filtered.
+            Component messageComponent = format(player).processMessage(plugin, player, message);
 
-        plugin.getServer().getScheduler().scheduleSyncDelayedTask(plugin, () -> {
             // Checks if the message passes the chat filter.
-            if(!plugin.filterManager().passesFilter(player, this, message)) {
+            if(!plugin.filterManager().passesFilter(player, this, message, messageComponent)) {
                 plugin.channelManager().logMessage(this, player, message, true);
                 return;
             }
 
-            // Creates the formatted component of the message.
-            Component messageComponent = format(player).processMessage(plugin, player, message);
-
-            ChannelMessageSendEvent messageEvent = new ChannelMessageSendEvent(player, this, message, messageComponent);
-            Bukkit.getPluginManager().callEvent(messageEvent);
+            // Calls events and sends the message, on the main thread if required.
+            chatExecutor.runEvents(() -> {
+                ChannelMessageSendEvent messageEvent = new ChannelMessageSendEvent(player, this, message, messageComponent);
+                Bukkit.getPluginManager().callEvent(messageEvent);
 
-            // Exit if the message sent event is cancelled.
-            if(messageEvent.isCancelled()) {
-                return;
-            }
+                // Exit if the message sent event is cancelled.
+                if(messageEvent.isCancelled()) {
+                    return;
+                }
 
-            // Log the message to MySQL.
-            plugin.channelManager().logMessage(this, player, message, false);
+                // Log the message to MySQL.
+                plugin.channelManager().logMessage(this, player, message, false);
 
-            // Send the message to all channel viewers.
-            messageEvent.getViewers().forEach(viewer -> ChatUtils.chat(viewer, messageComponent));
+                // Send the message to all channel viewers.
+                ChatUtils.broadcast(messageEvent.getViewers(), messageComponent);
 
-            // Send the message to the console as well
-            ChatUtils.chat(Bukkit.getConsoleSender(), Component.text().content("[" + name + "] ").append(messageComponent).build());
+                // Send the message to the console as well
+                ChatUtils.chat(Bukkit.getConsoleSender(), Component.text().content("[" + name + "] ").append(messageComponent).build());
 
-            // Sends the message through DiscordSRV if enabled.
-            if(plugin.hookManager().useDiscordSRV() && useDiscordSRV) {
-                DiscordSRV.getPlugin().getMainTextChannel().sendMessage(MiniMessage.miniMessage().stripTags(MiniMessage.miniMessage().serialize(messageComponent))).queue();
-            }
+                // Sends the message through DiscordSRV if enabled.
+                if(plugin.hookManager().useDiscordSRV() && useDiscordSRV) {
+                    DiscordSRV.getPlugin().getMainTextChannel().sendMessage(MiniMessage.miniMessage().stripTags(MiniMessage.miniMessage().serialize(messageComponent))).queue();
+                }
 
-            // Sends the message through bungeecord if bungeecord is enabled for the channel.
-            if(useBungeecord) {
-                plugin.getServer().getScheduler().scheduleSyncDelayedTask(plugin, ()-> {
-                    ChannelBungeeSendEvent bungeeEvent = new ChannelBungeeSendEvent(this, player, message);
-                    Bukkit.getPluginManager().callEvent(bungeeEvent);
-
-                    if(bungeeEvent.isCancelled()) {
-                        return;
-                    }
-
-                    ByteArrayDataOutput out = ByteStreams.newDataOutput();
-                    out.writeUTF("Forward");
-                    out.writeUTF("ALL");
-                    out.writeUTF("jadedchat");
-                    out.writeUTF(System.currentTimeMillis() + "~~" + name.toLowerCase() + "~~" + bungeeEvent.getData() + "~~" + MiniMessage.miniMessage().serialize(messageComponent));
-
-                    // Sends the message to bungeecord, to send back to all online servers.
-                    player.sendPluginMessage(plugin, "BungeeCord", out.toByteArray());
-                }, 0);
-            }
-        }, 0);
+                // Sends the message through bungeecord if bungeecord is enabled for the channel.
+                if(useBungeecord) {
+                    plugin.getServer().getScheduler().scheduleSyncDelayedTask(plugin, ()-> {
+                        ChannelBungeeSendEvent bungeeEvent = new ChannelBungeeSendEvent(this, player, message);
+                        Bukkit.getPluginManager().callEvent(bungeeEvent);
+
+                        if(bungeeEvent.isCancelled()) {
+                            return;
+                        }
+
+                        ByteArrayDataOutput out = ByteStreams.newDataOutput();
+                        out.writeUTF("Forward");
+                        out.writeUTF("ALL");
+                        out.writeUTF("jadedchat");
+                        out.writeUTF(System.currentTimeMillis() + "~~" + name.toLowerCase() + "~~" + bungeeEvent.getData() + "~~" + MiniMessage.miniMessage().serialize(messageComponent));
+
+                        // Sends the message to bungeecord, to send back to all online servers.
+                        player.sendPluginMessage(plugin, "BungeeCord", out.toByteArray());
+                    }, 0);
+                }
+            });
+        });
     }
 
     /**
@@ -402,12 +478,39 @@ public class ChatChannel {
         Component component = MiniMessage.miniMessage().deserialize(message);
 
         // Send the message to all channel viewers.
-        viewers.forEach(viewer -> ChatUtils.chat(viewer, component));
+        ChatUtils.broadcast(viewers, component);
 
         // Send the message to the console as well
         ChatUtils.chat(Bukkit.getConsoleSender(), Component.text().content("(Bungee) [" + name + "] ").append(component).build());
     }
 
+    /**
+     * Removes an extra check players have to pass to see messages in the channel.
+     * @param viewerFilter Filter to remove.
+     */
+    public void removeViewerFilter(ViewerFilter viewerFilter) {
+        viewerFilters.remove(viewerFilter);
+    }
+
+    /**
+     * Checks if a player has permission to use the channel and updates the channel members.
+     * Used when a player joins or their permissions change.
+     * @param player Player to check.
+     */
+    public void updateMember(Player player) {
+        // Channels without a permission are open to everyone, so there is nothing to store.
+        if(permission.equalsIgnoreCase("")) {
+            return;
+        }
+
+        if(player.hasPermission(permission)) {
+            members.add(player);
+        }
+        else {
+            members.remove(player);
+        }
+    }
+
     /**
      * Get if the channel should broadcast to Bungeecord.
      * @return Whether the channel uses Bungeecord.
@@ -444,54 +547,85 @@ public class ChatChannel {
 
     /**
      * Gets a collection of all players who should be able to view a message sent by a player in the channel.
+     * Starts from the smallest group of candidates, and checks them all in a single pass.
+     * If no checks are needed, a read-only view of the candidates is returned instead of a copy, so it has to be copied before other plugins get it.
      * @param sender Player who sent the message. Can be null.
      * @return All players who can see that message.
      */
     public Collection<Player> viewers(Player sender) {
-        Collection<Player> hasPermission = new ArrayList<>();
-
-        // If the permission is empty, return all online players.
-        if(permission.equalsIgnoreCase("")) {
-            hasPermission.addAll(Bukkit.getOnlinePlayers());
+        Collection<? extends Player> candidates;
+        boolean checkPermission = !permission.equalsIgnoreCase("");
+        boolean checkWorld = false;
+
+        // Picks the smallest group of players the viewers could be in.
+        if(chatRange > 0 && sender != null) {
+            // Only players near the sender, according to the location grid.
+            // The grid only returns players in the sender's world.
+            candidates = JadedChat.getNearbyPlayers(sender.getLocation(), chatRange);
         }
-        else {
-            // Checks each player to see if they have the proper permission.
-            for(Player player : Bukkit.getOnlinePlayers()) {
-                // If so, add them as a viewer.
-                if(player.hasPermission(permission)) {
-                    hasPermission.add(player);
-                }
+        else if(perWorld && sender != null) {
+            // Only players in the sender's world.
+            candidates = JadedChat.getPlayers(sender.getWorld());
+
+            // If the channel members are fewer, loop through them instead.
+            if(checkPermission && members.size() < candidates.size()) {
+                candidates = members;
+                checkPermission = false;
+                checkWorld = true;
             }
         }
+        else if(checkPermission) {
+            // Only players with the channel permission.
+            candidates = members;
+            checkPermission = false;
+        }
+        else {
+            candidates = Bukkit.getOnlinePlayers();
+        }
 
+        // Skip the copy if there is nothing left to check.
+        if(!checkPermission && !checkWorld && viewerFilters.isEmpty()) {
+            return Collections.unmodifiableCollection(candidates);
+        }
 
-        Collection<Player> inRange = new ArrayList<>();
+        Collection<Player> viewers = new ArrayList<>(candidates.size());
+        World world = checkWorld ? sender.getWorld() : null;
 
-        // If the range is less than one, add all players with permission.
-        if(chatRange < 1) {
-            inRange.addAll(hasPermission);
-        }
-        else {
-            // If not, loop through all players with permission and check if they are in range.
-            for(Player player : hasPermission) {
-                if(player.getLocation().distance(sender.getLocation()) <= chatRange) {
-                    inRange.add(player);
-                }
+        for(Player player : candidates) {
+            // Checks if the player has permission to use the channel.
+            if(checkPermission && !members.contains(player)) {
+                continue;
+            }
+
+            // Checks if the player is in the same world.
+            if(checkWorld && !player.getWorld().equals(world)) {
+                continue;
             }
-        }
 
-        Collection<Player> inWorld = new ArrayList<>();
-        if(!perWorld) {
-            inWorld.addAll(inRange);
+            // Checks any extra filters added to the channel.
+            if(!canView(sender, player)) {
+                continue;
+            }
+
+            viewers.add(player);
         }
-        else {
-            for(Player player : inRange) {
-                if(player.getWorld().equals(sender.getWorld())) {
-                    inWorld.add(player);
-                }
+
+        return viewers;
+    }
+
+    /**
+     * Checks if a player passes all extra viewer filters.
+     * @param sender Player who sent the message. Can be null.
+     * @param viewer Player who would see the message.
+     * @return Whether the player passes every filter.
+     */
+    private boolean canView(Player sender, Player viewer) {
+        for(ViewerFilter viewerFilter : viewerFilters) {
+            if(!viewerFilter.canView(sender, viewer)) {
+                return false;
             }
         }
 
-        return inWorld;
+        return true;
     }
 }
\ No newline at end of file
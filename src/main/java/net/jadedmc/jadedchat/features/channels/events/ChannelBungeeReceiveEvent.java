@@ -30,6 +30,7 @@ import org.bukkit.event.Event;
  */
 import org.bukkit.event.HandlerList;
 
+import java.util.ArrayList;
 import java.util.Collection;
 
 public class ChannelBungeeReceiveEvent extends Event implements Cancellable {
@@ -49,7 +50,8 @@ public class ChannelBungeeReceiveEvent extends Event implements Cancellable {
         this.channel = channel;
         this.data = data;
         this.message = message;
-        this.viewers = channel.viewers(null);
+        // Copied, since viewers() can be a read-only view of a live set, and listeners expect to be able to remove players.
+        this.viewers = new ArrayList<>(channel.viewers(null));
     }
 
     public ChatChannel getChannel() {
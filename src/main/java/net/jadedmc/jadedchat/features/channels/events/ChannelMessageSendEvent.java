@@ -26,11 +26,13 @@ package net.jadedmc.jadedchat.features.channels.events;
 
 import net.jadedmc.jadedchat.features.channels.channel.ChatChannel;
 import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.Cancellable;
 import org.bukkit.event.Event;
 import org.bukkit.event.HandlerList;
 
+import java.util.ArrayList;
 import java.util.Collection;
 
 public class ChannelMessageSendEvent  extends Event implements Cancellable {
@@ -49,12 +51,16 @@ public class ChannelMessageSendEvent  extends Event implements Cancellable {
     private Collection<Player> viewers;
 
     public ChannelMessageSendEvent(Player player, ChatChannel channel, String message, Component formattedMessage) {
+        // The event is async when async chat calls it from a worker thread.
+        super(!Bukkit.isPrimaryThread());
+
         this.player = player;
         this.channel = channel;
         this.message = message;
         this.formattedMessage = formattedMessage;
 
-        viewers = channel.viewers(player);
+        // Copied, since viewers() can be a read-only view of a live set, and listeners expect to be able to remove players.
+        viewers = new ArrayList<>(channel.viewers(player));
     }
 
     public ChatChannel getChannel() {
@@ -24,8 +24,8 @@
  */
 package net.jadedmc.jadedchat.features.channels.fomat;
 
-import me.clip.placeholderapi.PlaceholderAPI;
 import net.jadedmc.jadedchat.JadedChatPlugin;
+import net.jadedmc.jadedchat.features.channels.ChatExecutor;
 import net.jadedmc.jadedchat.utils.ChatUtils;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.TextComponent;
@@ -33,17 +33,19 @@ import net.kyori.adventure.text.minimessage.MiniMessage;
 import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
 import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
 import net.kyori.adventure.text.minimessage.tag.standard.StandardTags;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
 import java.util.HashMap;
 import java.util.LinkedHashMap;
-import java.util.Objects;
+import java.util.Map;
 
 /**
  * Represents a format used in a channel.
  */
 public class ChatFormat {
     private final HashMap<String, String> sections = new LinkedHashMap<>();
+    private final Map<String, FormatSegment> segments = new LinkedHashMap<>();
     private MiniMessage miniMessage;
     private final String id;
 
@@ -68,6 +70,7 @@ public class ChatFormat {
      */
     public void addSection(String id, String section) {
         sections.put(id, section);
+        segments.put(id, new FormatSegment(section));
     }
 
     /**
@@ -221,6 +224,31 @@ public class ChatFormat {
         return sections;
     }
 
+    /**
+     * Get the number of sections that change with each message or player.
+     * @return Number of dynamic sections.
+     */
+    public int dynamicSections() {
+        return segments.size() - staticSections();
+    }
+
+    /**
+     * Get the number of sections that are the same for every message.
+     * These are rendered once and reused.
+     * @return Number of static sections.
+     */
+    public int staticSections() {
+        int staticSections = 0;
+
+        for(FormatSegment segment : segments.values()) {
+            if(segment.isStatic()) {
+                staticSections++;
+            }
+        }
+
+        return staticSections;
+    }
+
     /**
      * Processes a message sent by a player using the format.
      * @param player Player sending the message.
@@ -235,19 +263,40 @@ public class ChatFormat {
         }
 
         TextComponent.Builder component = Component.text();
+        Component messageComponent = null;
 
         // Loop through each section of the format.
-        for(String sectionID : sections.keySet()) {
-            String section = sections.get(sectionID);
+        for(FormatSegment segment : segments.values()) {
 
             // Makes sure we don't process placeholders sent in the chat message.
-            if(section.contains("<message>")) {
-                section = PlaceholderAPI.setPlaceholders(player, section.replace("<message_raw>", message));
-                component.append(MiniMessage.miniMessage().deserialize(section, Placeholder.component("message", plugin.emoteManager().replaceEmotes(miniMessage.deserialize(message), player))));
+            if(segment.hasMessage()) {
+                if(messageComponent == null) {
+                    messageComponent = plugin.emoteManager().replaceEmotes(miniMessage.deserialize(message), player);
+                }
+
+                // Sections without placeholders are parsed once, and only have the message put in.
+                if(segment.isTemplate()) {
+                    component.append(segment.fill(messageComponent));
+                    continue;
+                }
+
+                String section = render(plugin, player, segment, message);
+                component.append(MiniMessage.miniMessage().deserialize(section, Placeholder.component("message", messageComponent)));
+            }
+            else if(segment.isStatic()) {
+                // Static sections are the same for every message, so they are only rendered once.
+                Component rendered = segment.component();
+
+                if(rendered == null) {
+                    rendered = renderSection(plugin, segment.render(player, message));
+                    segment.component(rendered);
+                }
+
+                component.append(rendered);
             }
             else {
                 // Processes placeholders for the section.
-                component.append(plugin.emoteManager().replaceEmotes(MiniMessage.miniMessage().deserialize(ChatUtils.replaceLegacy(PlaceholderAPI.setPlaceholders(player, section)), Placeholder.parsed("server", Objects.requireNonNull(plugin.getConfigManager().getConfig().getString("server"))))));
+                component.append(renderSection(plugin, render(plugin, player, segment, message)));
             }
         }
 
@@ -255,6 +304,35 @@ public class ChatFormat {
         return component.build();
     }
 
+    /**
+     * Turns a section without the message into a component.
+     * @param plugin Instance of the plugin.
+     * @param section Section with its placeholders already replaced.
+     * @return Resulting component.
+     */
+    private Component renderSection(JadedChatPlugin plugin, String section) {
+        return plugin.emoteManager().replaceEmotes(MiniMessage.miniMessage().deserialize(ChatUtils.replaceLegacy(section)));
+    }
+
+    /**
+     * Fills in the placeholders and message of a section of the format.
+     * Placeholders configured as sync-only are processed on the main thread.
+     * @param plugin Instance of the plugin.
+     * @param player Player to process placeholders for.
+     * @param segment Section to render.
+     * @param message Message being sent.
+     * @return Rendered section.
+     */
+    private String render(JadedChatPlugin plugin, Player player, FormatSegment segment, String message) {
+        ChatExecutor chatExecutor = plugin.channelManager().chatExecutor();
+
+        if(segment.hasPlaceholders() && !Bukkit.isPrimaryThread() && chatExecutor.needsMainThread(segment.text())) {
+            return chatExecutor.callSync(() -> segment.render(player, message), segment.render(null, message));
+        }
+
+        return segment.render(player, message);
+    }
+
     /**
      * Updates the format MiniMessage object.
      */
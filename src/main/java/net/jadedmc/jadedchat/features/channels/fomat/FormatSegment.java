@@ -0,0 +1,388 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.features.channels.fomat;
+
+import me.clip.placeholderapi.PlaceholderAPI;
+import net.jadedmc.jadedchat.JadedChat;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A section of a chat format, compiled into its static text and the slots that change per message.
+ * Compiled once when the format is loaded, so sending a message only has to fill in the slots.
+ */
+public class FormatSegment {
+    // Stands in for the message when a segment is parsed ahead of time. Uses private use characters, so chat formats will not contain it.
+    private static final String MESSAGE_SLOT = "\uE000message\uE000";
+
+    // Parses templates without compacting them, so the message slot is never merged into the text around it.
+    private static final MiniMessage TEMPLATE_PARSER = MiniMessage.builder().postProcessor(component -> component).build();
+
+    private final String text;
+    private final Part[] parts;
+    private final boolean hasMessage;
+    private final boolean hasPlaceholders;
+    private final boolean hasRawMessage;
+    private final int staticLength;
+    private final Component template;
+    private volatile Component component;
+
+    /**
+     * Compiles a section of a chat format.
+     * @param text Text of the section.
+     */
+    public FormatSegment(String text) {
+        // The server name does not change until the plugin is reloaded, so it is added now.
+        this(text, JadedChat.getServer());
+    }
+
+    /**
+     * Compiles a section of a chat format.
+     * @param text Text of the section.
+     * @param server Name of the server, put in place of the server tag. Can be null.
+     */
+    FormatSegment(String text, String server) {
+        this.text = text;
+        this.hasMessage = text.contains("<message>");
+
+        String compiled = server == null ? text : text.replace("<server>", server);
+
+        List<Part> parts = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        boolean hasPlaceholders = false;
+        boolean hasRawMessage = false;
+        int staticLength = 0;
+
+        int index = 0;
+        while(index < compiled.length()) {
+            // Raw message slot. Only filled in alongside the formatted message, elsewhere it stays literal text.
+            if(hasMessage && compiled.startsWith("<message_raw>", index)) {
+                staticLength += addLiteral(parts, literal);
+                parts.add(new Part(PartType.MESSAGE_RAW, ""));
+                hasRawMessage = true;
+                index += "<message_raw>".length();
+                continue;
+            }
+
+            // PlaceholderAPI slot.
+            int end = compiled.charAt(index) == '%' ? placeholderEnd(compiled, index) : -1;
+            if(end != -1) {
+                staticLength += addLiteral(parts, literal);
+                parts.add(new Part(PartType.PLACEHOLDER, compiled.substring(index, end + 1)));
+                hasPlaceholders = true;
+                index = end + 1;
+                continue;
+            }
+
+            literal.append(compiled.charAt(index));
+            index++;
+        }
+        staticLength += addLiteral(parts, literal);
+
+        this.parts = parts.toArray(new Part[0]);
+        this.hasPlaceholders = hasPlaceholders;
+        this.hasRawMessage = hasRawMessage;
+        this.staticLength = staticLength;
+
+        // Sections with the message but nothing else that changes are parsed now, instead of for every message.
+        this.template = hasMessage && !hasPlaceholders && !hasRawMessage ? compileTemplate(compiled) : null;
+    }
+
+    /**
+     * Get if the segment contains the formatted message.
+     * @return Whether the segment has a message tag.
+     */
+    public boolean hasMessage() {
+        return hasMessage;
+    }
+
+    /**
+     * Get if the segment is the same for every message.
+     * Static segments have no message, placeholders or raw message.
+     * @return Whether the segment is static.
+     */
+    public boolean isStatic() {
+        return !hasMessage && (parts.length == 0 || (parts.length == 1 && parts[0].type == PartType.LITERAL));
+    }
+
+    /**
+     * Get the pre-rendered component of a static segment.
+     * @return Rendered component, or null if it has not been rendered yet.
+     */
+    public Component component() {
+        return component;
+    }
+
+    /**
+     * Stores the rendered component of a static segment, so it can be reused.
+     * @param component Rendered component.
+     */
+    public void component(Component component) {
+        this.component = component;
+    }
+
+    /**
+     * Get if the segment was parsed ahead of time, and only needs the message put in.
+     * Segments with placeholders, the raw message or tags that change the message, like gradients, are parsed each time.
+     * @return Whether the segment is a template.
+     */
+    public boolean isTemplate() {
+        return template != null;
+    }
+
+    /**
+     * Puts a message into a template segment, without parsing the segment again.
+     * Gives the same result as parsing the segment with the message as a placeholder.
+     * @param message Formatted message.
+     * @return Resulting component.
+     */
+    public Component fill(Component message) {
+        return fill(template, message).compact();
+    }
+
+    /**
+     * Get if the segment contains PlaceholderAPI placeholders.
+     * @return Whether the segment has placeholders.
+     */
+    public boolean hasPlaceholders() {
+        return hasPlaceholders;
+    }
+
+    /**
+     * Fills in the slots of the segment.
+     * @param player Player to process placeholders for. Placeholders are left as is if null.
+     * @param message Message being sent.
+     * @return Resulting MiniMessage string.
+     */
+    public String render(Player player, String message) {
+        // Segments with only static text do not need to be rebuilt.
+        if(parts.length == 0) {
+            return "";
+        }
+
+        if(parts.length == 1 && parts[0].type == PartType.LITERAL) {
+            return parts[0].text;
+        }
+
+        StringBuilder builder = new StringBuilder(staticLength + message.length());
+
+        for(Part part : parts) {
+            switch (part.type) {
+                case LITERAL -> builder.append(part.text);
+                case MESSAGE_RAW -> builder.append(message);
+                case PLACEHOLDER -> builder.append(player == null ? part.text : PlaceholderAPI.setPlaceholders(player, part.text));
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Get the text the segment was compiled from.
+     * @return Segment text.
+     */
+    public String text() {
+        return text;
+    }
+
+    /**
+     * Parses a section with a slot where the message goes.
+     * @param section Section text, with nothing left to fill in but the message.
+     * @return Parsed section, or null if the message cannot be put in afterwards.
+     */
+    private static Component compileTemplate(String section) {
+        Component template = compactHovers(TEMPLATE_PARSER.deserialize(section, Placeholder.component("message", Component.text(MESSAGE_SLOT))));
+
+        // Tags like gradients recolor the message one character at a time, so they only work when parsed with it.
+        // Those are found by checking the template against a normal parse.
+        Component probe = Component.text("probe ").append(Component.text("message", NamedTextColor.RED));
+        if(!fill(template, probe).compact().equals(MiniMessage.miniMessage().deserialize(section, Placeholder.component("message", probe)))) {
+            return null;
+        }
+
+        return template;
+    }
+
+    /**
+     * Compacts hover text without a message slot, like a normal parse would.
+     * Hover text with a slot is compacted once the message is put in.
+     * @param component Component to compact the hover text of.
+     * @return Component with compacted hover text.
+     */
+    private static Component compactHovers(Component component) {
+        List<Component> children = new ArrayList<>(component.children().size());
+        for(Component child : component.children()) {
+            children.add(compactHovers(child));
+        }
+
+        Component result = component.children(children);
+
+        HoverEvent<?> hoverEvent = component.hoverEvent();
+        if(hoverEvent != null && hoverEvent.value() instanceof Component hoverText) {
+            hoverText = compactHovers(hoverText);
+            result = result.hoverEvent(HoverEvent.showText(hasSlot(hoverText) ? hoverText : hoverText.compact()));
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks if a component or any of its children has a message slot.
+     * @param component Component to check.
+     * @return Whether there is a slot.
+     */
+    private static boolean hasSlot(Component component) {
+        if(component instanceof TextComponent textComponent && textComponent.content().equals(MESSAGE_SLOT)) {
+            return true;
+        }
+
+        for(Component child : component.children()) {
+            if(hasSlot(child)) {
+                return true;
+            }
+        }
+
+        return component.hoverEvent() != null && component.hoverEvent().value() instanceof Component hoverText && hasSlot(hoverText);
+    }
+
+    /**
+     * Replaces every message slot in a component and its children, including hover text.
+     * Parts without a slot are reused as they are.
+     * @param component Component to fill.
+     * @param message Formatted message.
+     * @return Filled component.
+     */
+    private static Component fill(Component component, Component message) {
+        if(component instanceof TextComponent textComponent && textComponent.content().equals(MESSAGE_SLOT) && component.children().isEmpty()) {
+            return message;
+        }
+
+        List<Component> children = component.children();
+        List<Component> filled = null;
+
+        for(int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            Component result = fill(child, message);
+
+            // Only copies the children once one of them changes.
+            if(result != child && filled == null) {
+                filled = new ArrayList<>(children.subList(0, i));
+            }
+
+            if(filled != null) {
+                filled.add(result);
+            }
+        }
+
+        Component result = filled == null ? component : component.children(filled);
+
+        // Hover text is parsed with the same placeholders, so it can hold the message too.
+        HoverEvent<?> hoverEvent = component.hoverEvent();
+        if(hoverEvent != null && hoverEvent.value() instanceof Component hoverText) {
+            Component filledHover = fill(hoverText, message);
+
+            if(filledHover != hoverText) {
+                result = result.hoverEvent(HoverEvent.showText(filledHover.compact()));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Adds the pending static text as a part, if there is any.
+     * @param parts Parts to add to.
+     * @param literal Pending static text. Cleared afterwards.
+     * @return Length of the added text.
+     */
+    private static int addLiteral(List<Part> parts, StringBuilder literal) {
+        int length = literal.length();
+
+        if(length > 0) {
+            parts.add(new Part(PartType.LITERAL, literal.toString()));
+            literal.setLength(0);
+        }
+
+        return length;
+    }
+
+    /**
+     * Finds the closing percent sign of a PlaceholderAPI placeholder.
+     * Follows PlaceholderAPI's rules: the identifier before the first underscore cannot contain spaces.
+     * @param text Text to search.
+     * @param start Index of the opening percent sign.
+     * @return Index of the closing percent sign, or -1 if it is not a placeholder.
+     */
+    private static int placeholderEnd(String text, int start) {
+        boolean identified = false;
+
+        for(int index = start + 1; index < text.length(); index++) {
+            char character = text.charAt(index);
+
+            if(character == '%') {
+                return index == start + 1 ? -1 : index;
+            }
+
+            if(character == '_') {
+                identified = true;
+            }
+            else if(character == ' ' && !identified) {
+                return -1;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * The kinds of parts a segment can be made of.
+     */
+    private enum PartType {
+        LITERAL,
+        MESSAGE_RAW,
+        PLACEHOLDER
+    }
+
+    /**
+     * A single static or dynamic part of a segment.
+     */
+    private static class Part {
+        private final PartType type;
+        private final String text;
+
+        private Part(PartType type, String text) {
+            this.type = type;
+            this.text = text;
+        }
+    }
+}
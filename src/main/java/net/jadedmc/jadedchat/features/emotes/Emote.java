@@ -24,6 +24,9 @@
  */
 package net.jadedmc.jadedchat.features.emotes;
 
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+
 /**
  * A wrapper class for text replacements.
  * Used to add configurable emotes.
@@ -32,6 +35,7 @@ public class Emote {
     private final String identifier;
     private final String emote;
     private final String permission;
+    private final Component component;
 
     /**
      * Creates the emote.
@@ -42,6 +46,16 @@ public class Emote {
         this.identifier = identifier;
         this.emote = emote;
         this.permission = permission;
+        this.component = MiniMessage.miniMessage().deserialize(emote);
+    }
+
+    /**
+     * Gets the replacement as a component.
+     * Parsed once when the emote is created.
+     * @return Replacement component.
+     */
+    public Component getComponent() {
+        return component;
     }
 
     /**
@@ -27,12 +27,13 @@ package net.jadedmc.jadedchat.features.emotes;
 import net.jadedmc.jadedchat.JadedChatPlugin;
 import net.jadedmc.jadedchat.settings.ConfigManager;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.TextReplacementConfig;
-import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.TextComponent;
+import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -41,7 +42,8 @@ import java.util.List;
  */
 public class EmoteManager {
     private final JadedChatPlugin plugin;
-    private final List<Emote> emotes = new ArrayList<>();
+    private volatile List<Emote> emotes = new ArrayList<>();
+    private volatile EmoteMatcher matcher = new EmoteMatcher(new ArrayList<>());
     private boolean enableEmotes;
 
     /**
@@ -65,7 +67,8 @@ public class EmoteManager {
      * Loops through config to create emote objects.
      */
     public void registerEmotes() {
-        emotes.clear();
+        // Emotes are loaded into a new list, so chat being processed on other threads never sees a partial list.
+        List<Emote> emotes = new ArrayList<>();
 
         ConfigManager settings = plugin.getConfigManager();
 
@@ -78,6 +81,8 @@ public class EmoteManager {
         }
 
         if(!enableEmotes) {
+            this.emotes = emotes;
+            this.matcher = createMatcher(emotes);
             return;
         }
 
@@ -89,6 +94,89 @@ public class EmoteManager {
             String permission = settings.getEmotes().getString("emotes." + str + ".permission");
             emotes.add(new Emote(identifier, emote, permission));
         }
+
+        this.emotes = emotes;
+        this.matcher = createMatcher(emotes);
+    }
+
+    /**
+     * Builds the matcher for a list of emotes, with the permissions of everyone online already stored.
+     * @param emotes Emotes to match.
+     * @return Resulting matcher.
+     */
+    private EmoteMatcher createMatcher(List<Emote> emotes) {
+        EmoteMatcher matcher = new EmoteMatcher(emotes);
+
+        for(Player player : Bukkit.getOnlinePlayers()) {
+            matcher.permissions(player.getUniqueId(), checkPermissions(matcher, player));
+        }
+
+        return matcher;
+    }
+
+    /**
+     * Checks which emotes a player has permission to use.
+     * @param matcher Matcher the emotes are from.
+     * @param player Player to check.
+     * @return Usable emotes, by their index in the matcher.
+     */
+    private BitSet checkPermissions(EmoteMatcher matcher, Player player) {
+        Emote[] emotes = matcher.emotes();
+        BitSet allowed = new BitSet(emotes.length);
+
+        for(int i = 0; i < emotes.length; i++) {
+            if(player.hasPermission(emotes[i].getPermissionNode())) {
+                allowed.set(i);
+            }
+        }
+
+        return allowed;
+    }
+
+    /**
+     * Get the emotes a player can use, checking them if they have not been stored yet.
+     * @param matcher Matcher the emotes are from.
+     * @param player Player to get the emotes of.
+     * @return Usable emotes, by their index in the matcher.
+     */
+    private BitSet permissions(EmoteMatcher matcher, Player player) {
+        BitSet allowed = matcher.permissions(player.getUniqueId());
+
+        if(allowed == null) {
+            allowed = checkPermissions(matcher, player);
+            matcher.permissions(player.getUniqueId(), allowed);
+        }
+
+        return allowed;
+    }
+
+    /**
+     * Removes the stored emote permissions of a player.
+     * Used when they log off.
+     * @param player Player to remove.
+     */
+    public void removePlayer(Player player) {
+        matcher.removePermissions(player.getUniqueId());
+    }
+
+    /**
+     * Re-checks which emotes every online player can use.
+     * Used when permissions may have changed for everyone.
+     */
+    public void updatePermissions() {
+        for(Player player : Bukkit.getOnlinePlayers()) {
+            updatePermissions(player);
+        }
+    }
+
+    /**
+     * Re-checks which emotes a player can use.
+     * Used when they join, and when their permissions change.
+     * @param player Player to update.
+     */
+    public void updatePermissions(Player player) {
+        EmoteMatcher matcher = this.matcher;
+        matcher.permissions(player.getUniqueId(), checkPermissions(matcher, player));
     }
 
     /**
@@ -97,13 +185,7 @@ public class EmoteManager {
      * @return Reformatted Component.
      */
     public Component replaceEmotes(Component input) {
-        Component output = input;
-
-        for(Emote emote : emotes) {
-            output = output.replaceText(TextReplacementConfig.builder().match(emote.getIdentifier()).replacement(MiniMessage.miniMessage().deserialize(emote.getEmote())).build());
-        }
-
-        return output;
+        return replaceEmotes(input, matcher, null);
     }
 
     /**
@@ -113,17 +195,8 @@ public class EmoteManager {
      * @return Reformatted Component.
      */
     public Component replaceEmotes(Component input, Player player) {
-        Component output = input;
-
-        for(Emote emote : emotes) {
-            if(!player.hasPermission(emote.getPermissionNode())) {
-                continue;
-            }
-
-            output = output.replaceText(TextReplacementConfig.builder().match(emote.getIdentifier()).replacement(MiniMessage.miniMessage().deserialize(emote.getEmote())).build());
-        }
-
-        return output;
+        EmoteMatcher matcher = this.matcher;
+        return replaceEmotes(input, matcher, permissions(matcher, player));
     }
 
     /**
@@ -133,17 +206,8 @@ public class EmoteManager {
      * @return Reformatted String.
      */
     public String replaceEmotes(String input, Player player) {
-        String output = input;
-
-        for(Emote emote : emotes) {
-            if(!player.hasPermission(emote.getPermissionNode())) {
-                continue;
-            }
-
-            output = output.replace(emote.getIdentifier(), emote.getEmote());
-        }
-
-        return output;
+        EmoteMatcher matcher = this.matcher;
+        return replaceEmotes(input, matcher, permissions(matcher, player));
     }
 
     /**
@@ -152,12 +216,96 @@ public class EmoteManager {
      * @return Reformatted String.
      */
     public String replaceEmotes(String input) {
-        String output = input;
+        return replaceEmotes(input, matcher, null);
+    }
+
+    /**
+     * Replaces emotes in a String.
+     * @param input String to replace emotes in.
+     * @param matcher Matcher to find emotes with.
+     * @param allowed Which emotes can be used. Null allows all of them.
+     * @return Reformatted String.
+     */
+    private String replaceEmotes(String input, EmoteMatcher matcher, BitSet allowed) {
+        List<EmoteMatcher.Match> matches = matcher.find(input, allowed);
+
+        if(matches.isEmpty()) {
+            return input;
+        }
+
+        StringBuilder output = new StringBuilder(input.length());
+        int last = 0;
+
+        for(EmoteMatcher.Match match : matches) {
+            output.append(input, last, match.start()).append(match.emote().getEmote());
+            last = match.end();
+        }
+
+        return output.append(input, last, input.length()).toString();
+    }
+
+    /**
+     * Replaces emotes in a Component and all of its children.
+     * Components without emotes are returned as they are.
+     * @param input Component to replace emotes in.
+     * @param matcher Matcher to find emotes with.
+     * @param allowed Which emotes can be used. Null allows all of them.
+     * @return Reformatted Component.
+     */
+    private Component replaceEmotes(Component input, EmoteMatcher matcher, BitSet allowed) {
+        Component output = input;
+
+        // Replaces emotes in the children first, only copying them if one changed.
+        List<Component> children = input.children();
+        List<Component> replacedChildren = null;
+
+        for(int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            Component replaced = replaceEmotes(child, matcher, allowed);
+
+            if(replaced != child) {
+                if(replacedChildren == null) {
+                    replacedChildren = new ArrayList<>(children);
+                }
+
+                replacedChildren.set(i, replaced);
+            }
+        }
+
+        if(replacedChildren != null) {
+            output = output.children(replacedChildren);
+        }
+
+        // Only text components have text to replace.
+        if(!(output instanceof TextComponent text)) {
+            return output;
+        }
+
+        String content = text.content();
+        List<EmoteMatcher.Match> matches = matcher.find(content, allowed);
+
+        if(matches.isEmpty()) {
+            return output;
+        }
+
+        // The text after the first emote is moved into children, which keep the component's style.
+        List<Component> parts = new ArrayList<>();
+        int last = matches.get(0).start();
+
+        for(EmoteMatcher.Match match : matches) {
+            if(match.start() > last) {
+                parts.add(Component.text(content.substring(last, match.start())));
+            }
+
+            parts.add(match.emote().getComponent());
+            last = match.end();
+        }
 
-        for(Emote emote : emotes) {
-            output = output.replace(emote.getIdentifier(), emote.getEmote());
+        if(last < content.length()) {
+            parts.add(Component.text(content.substring(last)));
         }
 
-        return output;
+        parts.addAll(output.children());
+        return text.content(content.substring(0, matches.get(0).start())).children(parts);
     }
 }
\ No newline at end of file
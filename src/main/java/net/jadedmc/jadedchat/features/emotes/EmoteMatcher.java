@@ -0,0 +1,196 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.features.emotes;
+
+import net.jadedmc.jadedchat.utils.AhoCorasick;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds every emote identifier in a piece of text in a single pass.
+ * Built once from the registered emotes, using an Aho-Corasick automaton over their identifiers.
+ */
+public class EmoteMatcher {
+    private final Emote[] emotes;
+    private final AhoCorasick automaton;
+    private final Map<UUID, BitSet> permissions = new ConcurrentHashMap<>();
+
+    /**
+     * Builds the matcher.
+     * @param emotes Emotes to match.
+     */
+    public EmoteMatcher(List<Emote> emotes) {
+        this.emotes = emotes.toArray(new Emote[0]);
+
+        // Identifiers are stored in the order of the emotes, so matches line up with them.
+        List<String> identifiers = new ArrayList<>(this.emotes.length);
+        for(Emote emote : this.emotes) {
+            identifiers.add(emote.getIdentifier());
+        }
+
+        this.automaton = new AhoCorasick(identifiers);
+    }
+
+    /**
+     * Get the emotes the matcher was built from, in the order they were registered.
+     * @return Matched emotes.
+     */
+    public Emote[] emotes() {
+        return emotes;
+    }
+
+    /**
+     * Finds all emotes in some text.
+     * Matches never overlap. When two emotes start at the same place, the longer one is used.
+     * @param text Text to search.
+     * @param allowed Emotes that can be matched, by their index in emotes(). Null allows all of them.
+     * @return All matches, in order.
+     */
+    public List<Match> find(String text, BitSet allowed) {
+        if(emotes.length == 0) {
+            return Collections.emptyList();
+        }
+
+        // The longest allowed emote starting at each index, only created once something is found.
+        int[] longest = null;
+        int state = 0;
+
+        for(int index = 0; index < text.length(); index++) {
+            state = automaton.next(state, text.charAt(index));
+
+            for(int output : automaton.outputs(state)) {
+                int start = index - automaton.length(output) + 1;
+
+                if(allowed != null && !allowed.get(output)) {
+                    continue;
+                }
+
+                if(longest == null) {
+                    longest = new int[text.length()];
+                    Arrays.fill(longest, -1);
+                }
+
+                if(longest[start] == -1 || automaton.length(longest[start]) < automaton.length(output)) {
+                    longest[start] = output;
+                }
+            }
+        }
+
+        if(longest == null) {
+            return Collections.emptyList();
+        }
+
+        // Picks matches from left to right, skipping any that overlap a previous one.
+        List<Match> matches = new ArrayList<>();
+        int index = 0;
+
+        while(index < longest.length) {
+            if(longest[index] == -1) {
+                index++;
+                continue;
+            }
+
+            Emote emote = emotes[longest[index]];
+            int end = index + emote.getIdentifier().length();
+            matches.add(new Match(index, end, emote));
+            index = end;
+        }
+
+        return matches;
+    }
+
+    /**
+     * Get the emotes a player can use, stored by their index in emotes().
+     * @param uuid UUID of the player.
+     * @return Usable emotes, or null if they have not been stored.
+     */
+    public BitSet permissions(UUID uuid) {
+        return permissions.get(uuid);
+    }
+
+    /**
+     * Stores the emotes a player can use.
+     * Kept with the matcher, so they always line up with the emotes it was built from.
+     * @param uuid UUID of the player.
+     * @param allowed Usable emotes, by their index in emotes().
+     */
+    public void permissions(UUID uuid, BitSet allowed) {
+        permissions.put(uuid, allowed);
+    }
+
+    /**
+     * Removes the stored emotes of a player.
+     * @param uuid UUID of the player.
+     */
+    public void removePermissions(UUID uuid) {
+        permissions.remove(uuid);
+    }
+
+    /**
+     * An emote found in some text.
+     */
+    public static class Match {
+        private final int start;
+        private final int end;
+        private final Emote emote;
+
+        /**
+         * Creates the match.
+         * @param start Index the identifier starts at.
+         * @param end Index after the end of the identifier.
+         * @param emote Emote that was found.
+         */
+        public Match(int start, int end, Emote emote) {
+            this.start = start;
+            this.end = end;
+            this.emote = emote;
+        }
+
+        /**
+         * Get the index after the end of the identifier.
+         * @return End index.
+         */
+        public int end() {
+            return end;
+        }
+
+        /**
+         * Get the emote that was found.
+         * @return Found emote.
+         */
+        public Emote emote() {
+            return emote;
+        }
+
+        /**
+         * Get the index the identifier starts at.
+         * @return Start index.
+         */
+        public int start() {
+            return start;
+        }
+    }
+}
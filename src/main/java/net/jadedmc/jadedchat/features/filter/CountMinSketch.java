@@ -0,0 +1,105 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.features.filter;
+
+import java.util.Arrays;
+
+/**
+ * Counts how often values were seen over a sliding window of time, using a fixed amount of memory.
+ * The window is split into slots, each with its own count-min sketch, and the oldest slot is cleared as time moves on.
+ * Counts can be overestimated when values collide, but are never underestimated.
+ */
+public class CountMinSketch {
+    private final int depth;
+    private final int mask;
+    private final int slots;
+    private final long slotLength;
+    private final int[][] counts;
+    private final long[] slotTimes;
+
+    /**
+     * Creates the sketch.
+     * @param depth Number of hash functions. Each one lowers the chance of an overestimate.
+     * @param width Counters per hash function, rounded up to a power of two.
+     * @param slots Number of slots to split the window into.
+     * @param window Length of the window, in milliseconds.
+     */
+    public CountMinSketch(int depth, int width, int slots, long window) {
+        this.depth = depth;
+        this.mask = Integer.highestOneBit(Math.max(1, width - 1)) * 2 - 1;
+        this.slots = slots;
+        this.slotLength = Math.max(1, window / slots);
+        this.counts = new int[slots][depth * (mask + 1)];
+        this.slotTimes = new long[slots];
+        Arrays.fill(slotTimes, -1);
+    }
+
+    /**
+     * Counts a value, and gets how many times it has been seen within the window.
+     * @param hash 64-bit hash of the value.
+     * @param now Current time, in milliseconds.
+     * @return Estimated count, including this one.
+     */
+    public synchronized int add(long hash, long now) {
+        long epoch = now / slotLength;
+        int slot = (int) (epoch % slots);
+
+        // Clears the slot if it was last used a full window ago.
+        if(slotTimes[slot] != epoch) {
+            Arrays.fill(counts[slot], 0);
+            slotTimes[slot] = epoch;
+        }
+
+        int estimate = Integer.MAX_VALUE;
+        for(int row = 0; row < depth; row++) {
+            int index = index(hash, row);
+            counts[slot][index]++;
+
+            // Adds up the counter across every slot still in the window.
+            int count = 0;
+            for(int other = 0; other < slots; other++) {
+                if(slotTimes[other] > epoch - slots) {
+                    count += counts[other][index];
+                }
+            }
+
+            estimate = Math.min(estimate, count);
+        }
+
+        return estimate;
+    }
+
+    /**
+     * Get the counter a value uses in a row, using double hashing.
+     * @param hash 64-bit hash of the value.
+     * @param row Row of the sketch.
+     * @return Index of the counter.
+     */
+    private int index(long hash, int row) {
+        int first = (int) hash;
+        int second = (int) (hash >>> 32) | 1;
+        return row * (mask + 1) + ((first + row * second) & mask);
+    }
+}
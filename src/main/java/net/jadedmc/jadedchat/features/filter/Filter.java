@@ -24,14 +24,20 @@
  */
 package net.jadedmc.jadedchat.features.filter;
 
+import net.jadedmc.jadedchat.utils.TimingStat;
 import org.bukkit.entity.Player;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Represents a check to see if a message should be sent in chat.
  */
 public abstract class Filter {
     private boolean silentFail;
     private String failMessage;
+    private final TimingStat timings = new TimingStat();
 
     /**
      * Creates the filter.
@@ -74,12 +80,93 @@ public abstract class Filter {
     }
 
     /**
-     * Check if a message passes the filter.
+     * Checks a message against the filter, and says why it is blocked.
+     * Stateless filters are checked with canBypass and match instead, so their verdicts can be cached.
+     * @param player Player who sent the message.
+     * @param normalized Message after being normalized by the MessageNormalizer.
+     * @return Verdict of the message.
+     */
+    public abstract FilterVerdict check(Player player, String normalized);
+
+    /**
+     * Get the name of the filter, shown when it blocks a message.
+     * @return Filter name.
+     */
+    public String name() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * Get roughly how expensive the filter is to run.
+     * Cheaper filters run first, after stateless filters have run.
+     * @return Cost of the filter.
+     */
+    public FilterCost cost() {
+        return FilterCost.MODERATE;
+    }
+
+    /**
+     * Get if the filter can be run from chat worker threads.
+     * Filters that are not thread safe are run on the main thread.
+     * @return Whether the filter is thread safe.
+     */
+    public boolean isThreadSafe() {
+        return false;
+    }
+
+    /**
+     * Get if the filter only depends on the message and the player's bypass permission.
+     * Stateless filters are checked with canBypass and match instead of check, so their verdicts can be cached.
+     * They also run before every stateful filter, so stateful filters only see messages that would otherwise be sent.
+     * @return Whether the filter is stateless.
+     */
+    public boolean isStateless() {
+        return false;
+    }
+
+    /**
+     * Check if a player skips the filter. Only used for stateless filters.
      * @param player Player who sent the message.
-     * @param message Message that was sent.
-     * @return Whether the message passes.
+     * @return Whether the player can bypass the filter.
+     */
+    public boolean canBypass(Player player) {
+        return false;
+    }
+
+    /**
+     * Checks a message without checking who sent it. Only used for stateless filters.
+     * Hits are recorded by the caller, since cached verdicts skip this.
+     * @param normalized Message after being normalized by the MessageNormalizer.
+     * @return Verdict of the message.
+     */
+    public FilterVerdict match(String normalized) {
+        return FilterVerdict.PASS;
+    }
+
+    /**
+     * Get the configured rules of the filter, like regex statements or blocked words.
+     * @return All rules, or an empty list if the filter has none.
      */
-    public abstract boolean passesFilter(Player player, String message);
+    public List<FilterRule> rules() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Get how long the filter takes to check messages.
+     * @return Filter timings.
+     */
+    public TimingStat timings() {
+        return timings;
+    }
+
+    /**
+     * Get the n-grams of everything the filter can block, so messages without any of them can skip it.
+     * Filters that cannot list them, like ones that depend on earlier messages, return null and always run.
+     * @return N-grams of blocked text, normalized and NgramPrefilter.N long, or null.
+     */
+    public Collection<String> ngrams() {
+        return null;
+    }
 
     /**
      * Removes a player from the filter.
@@ -0,0 +1,228 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.features.filter;
+
+import net.jadedmc.jadedchat.JadedChatPlugin;
+import net.jadedmc.jadedchat.features.filter.filters.FloodFilter;
+import net.jadedmc.jadedchat.features.filter.filters.RegexFilter;
+import net.jadedmc.jadedchat.features.filter.filters.RepeatMessageFilter;
+import net.jadedmc.jadedchat.features.filter.filters.WordFilter;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * A set of filters loaded from one filter.yml, along with everything used to run them quickly.
+ * Chains do not change once created, so reloading swaps in a whole new chain at once.
+ */
+public class FilterChain {
+    private final JadedChatPlugin plugin;
+    private final MessageNormalizer normalizer;
+    private final List<Filter> filters;
+    private final NgramPrefilter prefilter;
+    private final Set<Filter> prefiltered = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final VerdictCache cache;
+
+    /**
+     * Creates the filters from a filter.yml configuration.
+     * @param plugin Instance of the plugin.
+     * @param config filter.yml configuration to load from.
+     */
+    public FilterChain(JadedChatPlugin plugin, FileConfiguration config) {
+        this.plugin = plugin;
+        this.normalizer = new MessageNormalizer(config);
+
+        List<Filter> filters = new ArrayList<>();
+        filters.add(new RegexFilter(plugin, config, normalizer));
+        filters.add(new WordFilter(plugin, config, normalizer));
+        filters.add(new RepeatMessageFilter(plugin, config));
+        filters.add(new FloodFilter(plugin, config));
+
+        // Stateful filters run last, so they only remember messages every other filter let through.
+        // Within each group, cheap filters run first, so expensive ones are skipped once a message is blocked.
+        filters.sort(Comparator.comparing((Filter filter) -> !filter.isStateless()).thenComparing(Filter::cost));
+        this.filters = Collections.unmodifiableList(filters);
+
+        // Collects the n-grams of every filter that can be skipped for clean messages.
+        NgramPrefilter prefilter = null;
+        if(config.getBoolean("Prefilter.enabled", true)) {
+            List<String> ngrams = new ArrayList<>();
+
+            for(Filter filter : filters) {
+                Collection<String> filterNgrams = filter.ngrams();
+
+                if(filterNgrams != null) {
+                    ngrams.addAll(filterNgrams);
+                    prefiltered.add(filter);
+                }
+            }
+
+            prefilter = prefiltered.isEmpty() ? null : new NgramPrefilter(ngrams, 0.01);
+        }
+        this.prefilter = prefilter;
+
+        int cacheSize = config.getInt("VerdictCache.size", 1024);
+        this.cache = cacheSize > 0 ? new VerdictCache(cacheSize) : null;
+    }
+
+    /**
+     * Checks a message against the filters.
+     * Stateless filters run before stateful ones, cheaper filters run first, and no more filters are run once one blocks the message.
+     * @param player Player who sent the message.
+     * @param message Message to check.
+     * @return Verdict of the filter that blocked the message, or FilterVerdict.PASS.
+     */
+    public FilterVerdict evaluate(Player player, String message) {
+        return evaluate(player, message, null);
+    }
+
+    /**
+     * Checks a message against the filters, and records how long each filter took.
+     * @param player Player who sent the message.
+     * @param message Message to check.
+     * @param filterNanos Array the time each filter took is stored in, in filter order, or null. Filters that did not run are left as is.
+     * @return Verdict of the filter that blocked the message, or FilterVerdict.PASS.
+     */
+    public FilterVerdict evaluate(Player player, String message, long[] filterNanos) {
+        // The message is normalized once, and shared by every filter.
+        String normalized = normalizer.normalize(message);
+
+        // Messages sharing no text with anything blocked can skip the filters that were prefiltered.
+        boolean clean = prefilter != null && !prefilter.mightMatch(normalized);
+
+        // Stateless filters only depend on the message, so their verdicts are looked up, or filled in as they run.
+        FilterVerdict[] cached = null;
+        boolean store = false;
+        if(cache != null) {
+            cached = cache.get(normalized);
+
+            if(cached == null) {
+                cached = new FilterVerdict[filters.size()];
+                store = true;
+            }
+        }
+
+        // Loops through each loaded filter, in the order they were sorted.
+        FilterVerdict verdict = FilterVerdict.PASS;
+        for(int i = 0; i < filters.size(); i++) {
+            Filter filter = filters.get(i);
+            if(clean && prefiltered.contains(filter)) {
+                continue;
+            }
+
+            // Times the filter, including verdicts found in the cache.
+            long start = System.nanoTime();
+            if(cached != null && filter.isStateless()) {
+                // Players who bypass the filter do not need the message checked.
+                if(filter.canBypass(player)) {
+                    continue;
+                }
+
+                verdict = cached[i];
+                if(verdict == null) {
+                    verdict = run(filter, () -> filter.match(normalized));
+
+                    // Verdicts that could change next time, like regex timeouts, are not cached.
+                    if(verdict.rule() == null || verdict.rule().cacheable()) {
+                        cached[i] = verdict;
+                    }
+                }
+
+                // Records which rule caught the message.
+                if(verdict.rule() != null) {
+                    verdict.rule().hit();
+                }
+            }
+            else {
+                verdict = run(filter, () -> filter.check(player, normalized));
+            }
+
+            long nanos = System.nanoTime() - start;
+            filter.timings().record(nanos);
+            if(filterNanos != null) {
+                filterNanos[i] = nanos;
+            }
+
+            // Stops at the first filter to block the message.
+            if(!verdict.passes()) {
+                break;
+            }
+        }
+
+        if(store) {
+            cache.put(normalized, cached);
+        }
+
+        return verdict;
+    }
+
+    /**
+     * Runs a filter, on the main thread if it is not thread safe.
+     * @param filter Filter being run.
+     * @param check Check to run.
+     * @return Verdict of the filter, or FilterVerdict.PASS if the main thread did not respond in time.
+     */
+    private FilterVerdict run(Filter filter, Supplier<FilterVerdict> check) {
+        if(filter.isThreadSafe()) {
+            return check.get();
+        }
+
+        return plugin.channelManager().chatExecutor().callSync(check::get, FilterVerdict.PASS);
+    }
+
+    /**
+     * Get the filters, in the order they run.
+     * @return Loaded filters.
+     */
+    public List<Filter> filters() {
+        return filters;
+    }
+
+    /**
+     * Get the normalizer messages go through before being filtered.
+     * @return Message normalizer.
+     */
+    public MessageNormalizer normalizer() {
+        return normalizer;
+    }
+
+    /**
+     * Get the prefilter used to skip filters for clean messages.
+     * @return Prefilter, or null if it is disabled.
+     */
+    public NgramPrefilter prefilter() {
+        return prefilter;
+    }
+
+    /**
+     * Get the cache of stateless filter verdicts.
+     * @return Verdict cache, or null if it is disabled.
+     */
+    public VerdictCache cache() {
+        return cache;
+    }
+}
@@ -26,24 +26,25 @@ package net.jadedmc.jadedchat.features.filter;
 
 import net.jadedmc.jadedchat.JadedChatPlugin;
 import net.jadedmc.jadedchat.features.channels.channel.ChatChannel;
-import net.jadedmc.jadedchat.features.filter.filters.RegexFilter;
-import net.jadedmc.jadedchat.features.filter.filters.RepeatMessageFilter;
 import net.jadedmc.jadedchat.utils.ChatUtils;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages filter objects.
  */
 public class FilterManager {
     private final JadedChatPlugin plugin;
-    private final List<Filter> filters = new ArrayList<>();
+    private volatile FilterChain chain;
+    private volatile Component filteredPrefix = Component.empty();
+    private final Set<Player> staff = ConcurrentHashMap.newKeySet();
+    private final FilterStatistics statistics;
 
     /**
      * Creates the filter manager.
@@ -51,9 +52,83 @@ public class FilterManager {
      */
     public FilterManager(JadedChatPlugin plugin) {
         this.plugin = plugin;
+        this.statistics = new FilterStatistics(plugin);
+        loadFilters();
+        updatePermissions();
+    }
+
+    /**
+     * Creates the filters from filter.yml.
+     * Filters compile their rules when they are created, so this is also used to reload them.
+     */
+    public void loadFilters() {
+        // Saving, restoring and swapping happen under one lock, so a periodic save cannot write the old counters over the new ones.
+        synchronized(statistics) {
+            // Saves the counters of the old filters, so the new ones continue from them.
+            FilterChain oldChain = this.chain;
+            if(oldChain != null) {
+                statistics.save(oldChain.filters());
+            }
 
-        filters.add(new RegexFilter(plugin));
-        filters.add(new RepeatMessageFilter(plugin));
+            // Filters are loaded into a new chain, so chat being processed on other threads never sees a partial set of filters.
+            // Replacing the chain also clears the verdict cache.
+            FilterChain chain = new FilterChain(plugin, plugin.getConfigManager().getFilter());
+            statistics.restore(chain.filters());
+            this.chain = chain;
+        }
+
+        // The prefix shown to staff is parsed once, instead of for every filtered message.
+        filteredPrefix = MiniMessage.miniMessage().deserialize(plugin.getConfigManager().getFilter().getString("FilteredPrefix", ""));
+    }
+
+    /**
+     * Get all loaded filters.
+     * @return Loaded filters.
+     */
+    public List<Filter> getFilters() {
+        return chain.filters();
+    }
+
+    /**
+     * Get the saved counters of the filter rules.
+     * @return Filter statistics.
+     */
+    public FilterStatistics statistics() {
+        return statistics;
+    }
+
+    /**
+     * Saves the counters of every filter rule.
+     * Used periodically and when the plugin is disabled.
+     */
+    public void saveStatistics() {
+        synchronized(statistics) {
+            statistics.save(chain.filters());
+        }
+    }
+
+    /**
+     * Get the prefilter used to skip filters for clean messages.
+     * @return Prefilter, or null if it is disabled.
+     */
+    public NgramPrefilter prefilter() {
+        return chain.prefilter();
+    }
+
+    /**
+     * Get the cache of stateless filter verdicts.
+     * @return Verdict cache, or null if it is disabled.
+     */
+    public VerdictCache cache() {
+        return chain.cache();
+    }
+
+    /**
+     * Get the normalizer messages go through before being filtered.
+     * @return Message normalizer.
+     */
+    public MessageNormalizer normalizer() {
+        return chain.normalizer();
     }
 
     /**
@@ -64,44 +139,61 @@ public class FilterManager {
      * @return Whether the message passes the filter.
      */
     public boolean passesFilter(Player player, ChatChannel channel, String message) {
-        boolean passes = true;
-
-        // Loops through each loaded filter.
-        for(Filter filter: filters) {
-            // Checks if the message passes the filter.
-            if(!filter.passesFilter(player, message)) {
-                passes = false;
-
-                // If the fail is not silent, displays the fail message.
-                if(filter.showFailMessage()) {
-                    ChatUtils.chat(player, filter.getFailMessage());
-                    return false;
-                }
-            }
+        return passesFilter(player, channel, message, channel.format(player).processMessage(plugin, player, message));
+    }
+
+    /**
+     * Check if a message passes the chat filters.
+     * @param player Player who sent the message.
+     * @param channel Channel the message was being sent in.
+     * @param message Message to check.
+     * @param messageComponent The message after being formatted, shown to staff if it is silently filtered.
+     * @return Whether the message passes the filter.
+     */
+    public boolean passesFilter(Player player, ChatChannel channel, String message, Component messageComponent) {
+        return check(player, channel, message, messageComponent).passes();
+    }
+
+    /**
+     * Checks a message against the chat filters, and handles it if it is blocked.
+     * Runs on a chat worker thread when AsyncChat is enabled, otherwise on the main thread.
+     * Stateless filters run before stateful ones, cheaper filters run first, and no more filters are run once one blocks the message.
+     * @param player Player who sent the message.
+     * @param channel Channel the message was being sent in.
+     * @param message Message to check.
+     * @param messageComponent The message after being formatted, shown to staff if it is silently filtered.
+     * @return Verdict of the filter that blocked the message, or FilterVerdict.PASS.
+     */
+    public FilterVerdict check(Player player, ChatChannel channel, String message, Component messageComponent) {
+        FilterVerdict verdict = chain.evaluate(player, message);
+
+        // Exit if the message passes.
+        if(verdict.passes()) {
+            return verdict;
         }
 
-        // Runs if the message silently fails the filter.
-        if(!passes) {
-            // Sends the player their own message.
-            // Checks for permissions to prevent sending the player the same message twice.
-            Component playerMessage = channel.format(player).processMessage(plugin, player, message);
-            if(!player.hasPermission("jadedchat.filter.view")) {
-                ChatUtils.chat(player, playerMessage);
-            }
+        // If the fail is not silent, displays the fail message.
+        Filter filter = verdict.filter();
+        if(filter.showFailMessage()) {
+            ChatUtils.chat(player, filter.getFailMessage());
+            return verdict;
+        }
 
-            // Sends staff the filtered message.
-            Component staffMessage = MiniMessage.miniMessage().deserialize(Objects.requireNonNull(plugin.getConfigManager().getFilter().getString("FilteredPrefix"))).append(playerMessage);
-            for(Player viewer : Bukkit.getOnlinePlayers()) {
-                if(viewer.hasPermission("jadedchat.filter.view")) {
-                    ChatUtils.chat(viewer, staffMessage);
-                }
-            }
+        // Sends the player their own message.
+        // Staff are skipped, to prevent sending the player the same message twice.
+        if(!staff.contains(player)) {
+            ChatUtils.chat(player, messageComponent);
+        }
 
-            // Send the message to the console as well
-            ChatUtils.chat(Bukkit.getConsoleSender(), Component.text().content("(filtered) [" + channel.name() + "] ").append(playerMessage).build());
+        // Sends staff the filtered message.
+        Component staffMessage = filteredPrefix.append(messageComponent);
+        for(Player viewer : staff) {
+            ChatUtils.chat(viewer, staffMessage);
         }
 
-        return passes;
+        // Send the message to the console as well, with why it was filtered.
+        ChatUtils.chat(Bukkit.getConsoleSender(), Component.text().content("(filtered by " + filter.name() + ": " + verdict.reason() + ") [" + channel.name() + "] ").append(messageComponent).build());
+        return verdict;
     }
 
     /**
@@ -109,9 +201,34 @@ public class FilterManager {
      * @param player Player to remove.
      */
     public void removePlayer(Player player) {
+        staff.remove(player);
+
         // Loops through each filter to remove the player.
-        for(Filter filter: filters) {
+        for(Filter filter: chain.filters()) {
             filter.removePlayer(player);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Re-checks which online players can view filtered messages.
+     */
+    public void updatePermissions() {
+        for(Player player : Bukkit.getOnlinePlayers()) {
+            updatePermissions(player);
+        }
+    }
+
+    /**
+     * Re-checks if a player can view filtered messages.
+     * Used when they join, and when their permissions change.
+     * @param player Player to update.
+     */
+    public void updatePermissions(Player player) {
+        if(player.hasPermission("jadedchat.filter.view")) {
+            staff.add(player);
+        }
+        else {
+            staff.remove(player);
+        }
+    }
+}
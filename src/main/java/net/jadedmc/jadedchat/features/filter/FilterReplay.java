@@ -0,0 +1,349 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.features.filter;
+
+import net.jadedmc.jadedchat.JadedChatPlugin;
+import net.jadedmc.jadedchat.utils.ChatUtils;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Replays a corpus of chat messages through the filters, to measure a filter.yml change before deploying it.
+ * Messages go through new filter chains, built by the same classes used for live chat, so live chat is not affected.
+ * They are sent by stand-in players without any permissions.
+ */
+public class FilterReplay {
+    private static final int WARMUP_MESSAGES = 10000;
+    private static final int REPORT_EXAMPLES = 5;
+
+    private final JadedChatPlugin plugin;
+    private final Map<String, Player> players = new HashMap<>();
+
+    /**
+     * Creates the replay.
+     * @param plugin Instance of the plugin.
+     */
+    public FilterReplay(JadedChatPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Replays a corpus, and displays the results.
+     * The corpus has one message per line. Lines can also be a player name and message separated by a tab,
+     * like a tab separated export of the chat_logs table's username and message columns.
+     * Lines without a player name are each sent by a different player.
+     * @param sender Who to display the results to.
+     * @param corpus File with the messages to replay.
+     * @param compare Another filter.yml to compare the current one to, or null.
+     */
+    public void run(CommandSender sender, File corpus, File compare) {
+        List<String[]> messages;
+        try {
+            messages = readCorpus(corpus);
+        }
+        catch (IOException exception) {
+            exception.printStackTrace();
+            ChatUtils.chat(sender, "<red><bold>Error</bold> <dark_gray>» <red>Could not read " + corpus.getName() + ": " + exception.getMessage());
+            return;
+        }
+
+        if(messages.isEmpty()) {
+            ChatUtils.chat(sender, "<red><bold>Error</bold> <dark_gray>» <red>" + corpus.getName() + " has no messages!");
+            return;
+        }
+
+        // Runs part of the corpus through a throwaway chain first, so the results are not skewed by the JIT warming up.
+        FileConfiguration config = loadConfig(new File(plugin.getDataFolder(), "filter.yml"));
+        FilterChain warmup = new FilterChain(plugin, config);
+        for(int i = 0; i < Math.min(messages.size(), WARMUP_MESSAGES); i++) {
+            warmup.evaluate(player(messages.get(i)[0]), messages.get(i)[1]);
+        }
+
+        ChatUtils.chat(sender, "<green><bold>JadedChat</bold> <dark_gray>» <green>Replayed <white>" + messages.size() + " <green>messages from " + corpus.getName() + ":");
+        FilterVerdict[] current = replay(sender, "filter.yml", config, messages);
+
+        if(compare == null) {
+            return;
+        }
+
+        FilterVerdict[] other = replay(sender, compare.getName(), loadConfig(compare), messages);
+        compare(sender, compare.getName(), messages, current, other);
+    }
+
+    /**
+     * Replays every message through a new filter chain, and displays how fast each filter was.
+     * @param sender Who to display the results to.
+     * @param name Name of the configuration, to display.
+     * @param config filter.yml configuration to build the chain from.
+     * @param messages Player names and messages to replay.
+     * @return Verdict of each message.
+     */
+    private FilterVerdict[] replay(CommandSender sender, String name, FileConfiguration config, List<String[]> messages) {
+        FilterChain chain = new FilterChain(plugin, config);
+        List<Filter> filters = chain.filters();
+
+        // Stores how long each filter took for every message it ran on.
+        long[][] latencies = new long[filters.size()][messages.size()];
+        int[] counts = new int[filters.size()];
+        long[] filterNanos = new long[filters.size()];
+
+        FilterVerdict[] verdicts = new FilterVerdict[messages.size()];
+        int blocked = 0;
+
+        long start = System.nanoTime();
+        for(int i = 0; i < messages.size(); i++) {
+            Arrays.fill(filterNanos, -1);
+            verdicts[i] = chain.evaluate(player(messages.get(i)[0]), messages.get(i)[1], filterNanos);
+
+            if(!verdicts[i].passes()) {
+                blocked++;
+            }
+
+            for(int filter = 0; filter < filters.size(); filter++) {
+                if(filterNanos[filter] != -1) {
+                    latencies[filter][counts[filter]++] = filterNanos[filter];
+                }
+            }
+        }
+        long elapsed = Math.max(1, System.nanoTime() - start);
+
+        double perSecond = messages.size() * 1_000_000_000.0 / elapsed;
+        ChatUtils.chat(sender, "<green><bold>JadedChat</bold> <dark_gray>» <green>" + name + ": <white>" + String.format("%.0f", perSecond) + " <gray>messages/sec, <white>" + blocked + " <gray>blocked");
+
+        // Shows the median and 99th percentile time of each filter, for the messages it ran on.
+        for(int filter = 0; filter < filters.size(); filter++) {
+            long[] times = Arrays.copyOf(latencies[filter], counts[filter]);
+            Arrays.sort(times);
+
+            String p50 = times.length == 0 ? "-" : String.format("%.2f", percentile(times, 50) / 1000.0);
+            String p99 = times.length == 0 ? "-" : String.format("%.2f", percentile(times, 99) / 1000.0);
+            ChatUtils.chat(sender, "  <dark_gray>➤ <gray>" + filters.get(filter).name() + ": <white>" + p50 + "µs <gray>p50, <white>" + p99 + "µs <gray>p99, ran on <white>" + times.length + " <gray>messages");
+        }
+
+        return verdicts;
+    }
+
+    /**
+     * Displays which messages are blocked differently by two configurations, and saves every difference to a file.
+     * @param sender Who to display the results to.
+     * @param name Name of the other configuration.
+     * @param messages Player names and messages that were replayed.
+     * @param current Verdicts of the current filter.yml.
+     * @param other Verdicts of the other configuration.
+     */
+    private void compare(CommandSender sender, String name, List<String[]> messages, FilterVerdict[] current, FilterVerdict[] other) {
+        List<String> onlyCurrent = new ArrayList<>();
+        List<String> onlyOther = new ArrayList<>();
+        List<String> report = new ArrayList<>();
+
+        for(int i = 0; i < messages.size(); i++) {
+            if(current[i].passes() == other[i].passes()) {
+                continue;
+            }
+
+            String message = messages.get(i)[1];
+            if(current[i].passes()) {
+                onlyOther.add(message);
+                report.add("+ " + describe(other[i]) + "\t" + message);
+            }
+            else {
+                onlyCurrent.add(message);
+                report.add("- " + describe(current[i]) + "\t" + message);
+            }
+        }
+
+        ChatUtils.chat(sender, "<green><bold>JadedChat</bold> <dark_gray>» <green>Differences: <white>" + onlyOther.size() + " <gray>newly blocked, <white>" + onlyCurrent.size() + " <gray>no longer blocked");
+        for(int i = 0; i < Math.min(onlyOther.size(), REPORT_EXAMPLES); i++) {
+            ChatUtils.chat(sender, "  <dark_gray>➤ <red>+ <white>" + MiniMessage.miniMessage().escapeTags(onlyOther.get(i)));
+        }
+        for(int i = 0; i < Math.min(onlyCurrent.size(), REPORT_EXAMPLES); i++) {
+            ChatUtils.chat(sender, "  <dark_gray>➤ <green>- <white>" + MiniMessage.miniMessage().escapeTags(onlyCurrent.get(i)));
+        }
+
+        if(report.isEmpty()) {
+            return;
+        }
+
+        // Every difference is saved, since there can be too many to display.
+        File file = new File(plugin.getDataFolder(), "replay-" + name.replace(".yml", "") + ".txt");
+        try {
+            Files.write(file.toPath(), report, StandardCharsets.UTF_8);
+            ChatUtils.chat(sender, "  <dark_gray>➤ <gray>Every difference was saved to <white>" + file.getName());
+        }
+        catch (IOException exception) {
+            exception.printStackTrace();
+        }
+    }
+
+    /**
+     * Loads a filter.yml configuration to replay with.
+     * A separate copy is loaded, so the live configuration is not changed.
+     * @param file File to load.
+     * @return Loaded configuration.
+     */
+    private static FileConfiguration loadConfig(File file) {
+        FileConfiguration config = YamlConfiguration.loadConfiguration(file);
+
+        // Timing each regex statement on its own would skew the results, so it is turned off.
+        config.set("RegexFilter.profileRate", 0);
+        return config;
+    }
+
+    /**
+     * Describes why a message was blocked, for the differences file.
+     * @param verdict Blocking verdict.
+     * @return Filter name and reason.
+     */
+    private static String describe(FilterVerdict verdict) {
+        return verdict.filter().name() + ": " + verdict.reason();
+    }
+
+    /**
+     * Get a percentile of sorted times.
+     * @param times Sorted times.
+     * @param percentile Percentile to get, from 0 to 100.
+     * @return Time at the percentile.
+     */
+    private static long percentile(long[] times, int percentile) {
+        return times[(int) ((times.length - 1) * (long) percentile / 100)];
+    }
+
+    /**
+     * Reads every message from a corpus file.
+     * @param corpus File to read.
+     * @return Player name and message of each line.
+     * @throws IOException If the file could not be read.
+     */
+    private static List<String[]> readCorpus(File corpus) throws IOException {
+        List<String[]> messages = new ArrayList<>();
+        int line = 0;
+
+        for(String text : Files.readAllLines(corpus.toPath(), StandardCharsets.UTF_8)) {
+            line++;
+
+            if(text.isBlank()) {
+                continue;
+            }
+
+            // Lines with a tab start with the player's name. The message is always the last column.
+            int tab = text.indexOf('\t');
+            if(tab == -1) {
+                messages.add(new String[]{"line-" + line, text});
+                continue;
+            }
+
+            String name = text.substring(0, tab);
+            String message = text.substring(text.lastIndexOf('\t') + 1);
+
+            // Skips the header row of exported tables.
+            if(line == 1 && name.equalsIgnoreCase("username")) {
+                continue;
+            }
+
+            messages.add(new String[]{name, message});
+        }
+
+        return messages;
+    }
+
+    /**
+     * Get the stand-in player for a name, creating it if needed.
+     * @param name Name of the player.
+     * @return Stand-in player.
+     */
+    private Player player(String name) {
+        return players.computeIfAbsent(name, FilterReplay::createPlayer);
+    }
+
+    /**
+     * Creates a stand-in player, which only knows its name and UUID, and has no permissions.
+     * Every other method returns null, false or 0.
+     * @param name Name of the player.
+     * @return Stand-in player.
+     */
+    private static Player createPlayer(String name) {
+        UUID uuid = UUID.nameUUIDFromBytes(("Replay:" + name).getBytes(StandardCharsets.UTF_8));
+
+        return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "getUniqueId" -> uuid;
+            case "getName", "getDisplayName" -> name;
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> uuid.hashCode();
+            case "toString" -> "ReplayPlayer{" + name + "}";
+            default -> defaultValue(method.getReturnType());
+        });
+    }
+
+    /**
+     * Get the default value of a type, for methods a stand-in player does not support.
+     * @param type Return type of the method.
+     * @return Null, false or 0.
+     */
+    private static Object defaultValue(Class<?> type) {
+        if(!type.isPrimitive() || type == void.class) {
+            return null;
+        }
+
+        if(type == boolean.class) {
+            return false;
+        }
+
+        if(type == char.class) {
+            return (char) 0;
+        }
+
+        if(type == long.class) {
+            return 0L;
+        }
+
+        if(type == float.class) {
+            return 0f;
+        }
+
+        if(type == double.class) {
+            return 0d;
+        }
+
+        if(type == short.class) {
+            return (short) 0;
+        }
+
+        if(type == byte.class) {
+            return (byte) 0;
+        }
+
+        return 0;
+    }
+}
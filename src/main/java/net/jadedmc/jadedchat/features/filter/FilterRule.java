@@ -0,0 +1,111 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.features.filter;
+
+import net.jadedmc.jadedchat.utils.TimingStat;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A single configured rule of a filter, like a regex statement.
+ * Keeps track of how often the rule blocks a message, and how long it takes to check.
+ */
+public class FilterRule {
+    private final String rule;
+    private final boolean cacheable;
+    private final LongAdder hits = new LongAdder();
+    private final TimingStat timings = new TimingStat();
+
+    /**
+     * Creates the rule.
+     * @param rule Rule as it appears in the config.
+     */
+    public FilterRule(String rule) {
+        this(rule, true);
+    }
+
+    /**
+     * Creates the rule.
+     * @param rule Rule as it appears in the config.
+     * @param cacheable Whether a message blocked by the rule is always blocked by it, so the verdict can be cached.
+     */
+    public FilterRule(String rule, boolean cacheable) {
+        this.rule = rule;
+        this.cacheable = cacheable;
+    }
+
+    /**
+     * Get if messages blocked by the rule can have their verdict cached.
+     * @return Whether the rule is cacheable.
+     */
+    public boolean cacheable() {
+        return cacheable;
+    }
+
+    /**
+     * Records a message being blocked by the rule.
+     */
+    public void hit() {
+        hits.increment();
+    }
+
+    /**
+     * Get how many messages the rule has blocked.
+     * @return Number of hits.
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get how long the rule takes to check against a message.
+     * Filters that cannot time rules on their own never record anything here.
+     * @return Rule timings.
+     */
+    public TimingStat timings() {
+        return timings;
+    }
+
+    /**
+     * Replaces the counts with ones saved before a restart.
+     * @param hits Number of hits.
+     * @param checks Number of timed checks.
+     * @param nanos Total time of the timed checks, in nanoseconds.
+     */
+    public void restore(long hits, long checks, long nanos) {
+        this.hits.reset();
+        this.hits.add(hits);
+        timings.reset();
+        timings.add(checks, nanos);
+    }
+
+    /**
+     * Get the rule as it appears in the config.
+     * @return Configured rule.
+     */
+    public String rule() {
+        return rule;
+    }
+}
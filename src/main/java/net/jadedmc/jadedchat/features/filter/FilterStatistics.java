@@ -0,0 +1,168 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.features.filter;
+
+import net.jadedmc.jadedchat.JadedChatPlugin;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Saves the counters of every filter rule to filter-stats.yml, so they carry over between restarts and reloads.
+ * This makes it safe to tell which rules never match, even on servers that restart often.
+ */
+public class FilterStatistics {
+    private final JadedChatPlugin plugin;
+    private final File file;
+    private long since;
+    private final Map<String, long[]> unloaded = new LinkedHashMap<>();
+
+    /**
+     * Creates the statistics.
+     * @param plugin Instance of the plugin.
+     */
+    public FilterStatistics(JadedChatPlugin plugin) {
+        this.plugin = plugin;
+        this.file = new File(plugin.getDataFolder(), "filter-stats.yml");
+        this.since = System.currentTimeMillis();
+    }
+
+    /**
+     * Sets the rules of newly loaded filters to their saved counters.
+     * Saved rules that are no longer loaded are kept, in case they are turned back on.
+     * @param filters Filters that were just loaded.
+     */
+    public synchronized void restore(List<Filter> filters) {
+        unloaded.clear();
+
+        if(!file.exists()) {
+            return;
+        }
+
+        FileConfiguration configuration = YamlConfiguration.loadConfiguration(file);
+        since = configuration.getLong("since", since);
+
+        // Indexes the loaded rules by filter and rule.
+        Map<String, FilterRule> rules = new HashMap<>();
+        for(Filter filter : filters) {
+            for(FilterRule rule : filter.rules()) {
+                rules.put(key(filter.name(), rule.rule()), rule);
+            }
+        }
+
+        for(Map<?, ?> entry : configuration.getMapList("rules")) {
+            String key = key(String.valueOf(entry.get("filter")), String.valueOf(entry.get("rule")));
+            long[] counts = {number(entry.get("hits")), number(entry.get("checks")), number(entry.get("nanos"))};
+
+            FilterRule rule = rules.get(key);
+            if(rule == null) {
+                unloaded.put(key, counts);
+                continue;
+            }
+
+            rule.restore(counts[0], counts[1], counts[2]);
+        }
+    }
+
+    /**
+     * Saves the counters of every rule to the file.
+     * @param filters Currently loaded filters.
+     */
+    public synchronized void save(List<Filter> filters) {
+        List<Map<String, Object>> entries = new ArrayList<>();
+
+        for(Filter filter : filters) {
+            for(FilterRule rule : filter.rules()) {
+                entries.add(entry(filter.name(), rule.rule(), rule.hits(), rule.timings().count(), rule.timings().totalNanos()));
+            }
+        }
+
+        for(Map.Entry<String, long[]> unloadedRule : unloaded.entrySet()) {
+            String[] key = unloadedRule.getKey().split("\n", 2);
+            long[] counts = unloadedRule.getValue();
+            entries.add(entry(key[0], key[1], counts[0], counts[1], counts[2]));
+        }
+
+        FileConfiguration configuration = YamlConfiguration.loadConfiguration(file);
+        configuration.set("since", since);
+        configuration.set("rules", entries);
+
+        try {
+            configuration.save(file);
+        }
+        catch (IOException exception) {
+            plugin.getLogger().warning("Could not save filter-stats.yml: " + exception.getMessage());
+        }
+    }
+
+    /**
+     * Get when the counters started being tracked.
+     * @return Time in milliseconds.
+     */
+    public long since() {
+        return since;
+    }
+
+    /**
+     * Creates a saved entry for a rule.
+     * @param filter Name of the filter the rule belongs to.
+     * @param rule Rule as it appears in the config.
+     * @param hits Number of hits.
+     * @param checks Number of timed checks.
+     * @param nanos Total time of the timed checks.
+     * @return Entry to save.
+     */
+    private static Map<String, Object> entry(String filter, String rule, long hits, long checks, long nanos) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("filter", filter);
+        entry.put("rule", rule);
+        entry.put("hits", hits);
+        entry.put("checks", checks);
+        entry.put("nanos", nanos);
+        return entry;
+    }
+
+    /**
+     * Get the key a rule is stored under.
+     * @param filter Name of the filter the rule belongs to.
+     * @param rule Rule as it appears in the config.
+     * @return Rule key.
+     */
+    private static String key(String filter, String rule) {
+        return filter + "\n" + rule;
+    }
+
+    /**
+     * Reads a saved number.
+     * @param value Value from the file.
+     * @return The number, or 0 if it is missing.
+     */
+    private static long number(Object value) {
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+}
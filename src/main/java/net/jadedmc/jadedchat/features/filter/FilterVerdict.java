@@ -0,0 +1,139 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.features.filter;
+
+/**
+ * The result of checking a message against a filter.
+ * Blocking verdicts say which filter blocked the message and why, and where in the normalized message the problem is.
+ */
+public class FilterVerdict {
+    /**
+     * Verdict of a message that passes.
+     */
+    public static final FilterVerdict PASS = new FilterVerdict(null, null, null, -1, -1);
+
+    private final Filter filter;
+    private final FilterRule rule;
+    private final String reason;
+    private final int start;
+    private final int end;
+
+    /**
+     * Creates the verdict.
+     * @param filter Filter that blocked the message.
+     * @param rule Rule that blocked the message, or null.
+     * @param reason Why the message was blocked.
+     * @param start Start of the blocked text in the normalized message, or -1.
+     * @param end End of the blocked text in the normalized message, or -1.
+     */
+    private FilterVerdict(Filter filter, FilterRule rule, String reason, int start, int end) {
+        this.filter = filter;
+        this.rule = rule;
+        this.reason = reason;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Creates a verdict letting a message through, while still recording a rule against it.
+     * Used when a filter gives up on a message, like when the regex filter runs out of time.
+     * The rule is counted as a hit, and the verdict is only cached if the rule is cacheable.
+     * @param rule Rule to record.
+     * @return Passing verdict.
+     */
+    public static FilterVerdict pass(FilterRule rule) {
+        return new FilterVerdict(null, rule, null, -1, -1);
+    }
+
+    /**
+     * Creates a verdict blocking a message, without a rule or span.
+     * @param filter Filter blocking the message.
+     * @param reason Why the message is blocked.
+     * @return Blocking verdict.
+     */
+    public static FilterVerdict block(Filter filter, String reason) {
+        return new FilterVerdict(filter, null, reason, -1, -1);
+    }
+
+    /**
+     * Creates a verdict blocking a message because of a rule.
+     * @param filter Filter blocking the message.
+     * @param rule Rule the message breaks.
+     * @param start Start of the text matching the rule, in the normalized message.
+     * @param end End of the text matching the rule, in the normalized message.
+     * @return Blocking verdict.
+     */
+    public static FilterVerdict block(Filter filter, FilterRule rule, int start, int end) {
+        return new FilterVerdict(filter, rule, rule.rule(), start, end);
+    }
+
+    /**
+     * Get if the message passes.
+     * @return Whether the message passes.
+     */
+    public boolean passes() {
+        return filter == null;
+    }
+
+    /**
+     * Get the filter that blocked the message.
+     * @return Blocking filter, or null if the message passes.
+     */
+    public Filter filter() {
+        return filter;
+    }
+
+    /**
+     * Get the rule that blocked the message, or that was recorded against a passing message.
+     * @return Rule of the verdict, or null if there is none.
+     */
+    public FilterRule rule() {
+        return rule;
+    }
+
+    /**
+     * Get why the message was blocked.
+     * @return Reason, or null if the message passes.
+     */
+    public String reason() {
+        return reason;
+    }
+
+    /**
+     * Get where the blocked text starts in the normalized message.
+     * @return Start index, or -1 if there is none.
+     */
+    public int start() {
+        return start;
+    }
+
+    /**
+     * Get where the blocked text ends in the normalized message.
+     * @return End index, or -1 if there is none.
+     */
+    public int end() {
+        return end;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.features.filter;
+
+/**
+ * Fixed-size fingerprints of messages, used by filters that compare messages to each other.
+ */
+public class Fingerprints {
+    private static final int SHINGLE_LENGTH = 3;
+
+    /**
+     * Hashes part of a string without copying it, using 64-bit FNV-1a with a final mix.
+     * @param text Text to hash.
+     * @param start Index to start at.
+     * @param end Index to end before.
+     * @return 64-bit hash.
+     */
+    public static long hash(CharSequence text, int start, int end) {
+        long hash = 0xcbf29ce484222325L;
+
+        for(int i = start; i < end; i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Creates a SimHash of a message, from the hashes of its 3 character shingles.
+     * Similar messages get fingerprints that differ in only a few bits.
+     * @param message Normalized message to fingerprint.
+     * @return 64-bit fingerprint.
+     */
+    public static long simHash(String message) {
+        if(message.length() <= SHINGLE_LENGTH) {
+            return hash(message, 0, message.length());
+        }
+
+        // Each bit is voted on by every shingle.
+        int[] votes = new int[64];
+        for(int start = 0; start + SHINGLE_LENGTH <= message.length(); start++) {
+            long hash = hash(message, start, start + SHINGLE_LENGTH);
+
+            for(int bit = 0; bit < 64; bit++) {
+                votes[bit] += ((hash >>> bit) & 1) == 1 ? 1 : -1;
+            }
+        }
+
+        long fingerprint = 0;
+        for(int bit = 0; bit < 64; bit++) {
+            if(votes[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+
+        return fingerprint;
+    }
+
+    /**
+     * Get how similar two SimHash fingerprints are.
+     * @param first First fingerprint.
+     * @param second Second fingerprint.
+     * @return Similarity from 0 to 100.
+     */
+    public static int similarity(long first, long second) {
+        return 100 - Long.bitCount(first ^ second) * 100 / 64;
+    }
+}
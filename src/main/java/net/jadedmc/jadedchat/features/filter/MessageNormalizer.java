@@ -0,0 +1,189 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.features.filter;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cleans up messages before they are checked by the filters, so filters do not need to handle every variation.
+ * Removes misc characters, folds case, turns look-alike characters into plain letters and replaces leetspeak.
+ * Everything is compiled into a lookup table when loaded, so a message is normalized in a single pass.
+ */
+public class MessageNormalizer {
+    // Marks characters that are removed entirely.
+    private static final char REMOVE = '\uFFFF';
+
+    // Letters from other alphabets that look like plain ASCII letters.
+    private static final String CONFUSABLES =
+            "аaвbеeкkмmнhоoрpсcтtуyхxіiјjѕsԁdһhӏlԛqԝw" +
+            "АAВBЕEКKМMНHОOРPСCТTУYХXІIЈJЅS" +
+            "αaβbεeιiκkνvοoρpτtυuχxΑAΒBΕEΗHΙIΚKΜMΝNΟOΡPΤTΥYΧXΖZ";
+
+    private final char[] table = new char[Character.MAX_VALUE + 1];
+    private final List<String> removedStrings = new ArrayList<>();
+    private final boolean lowercase;
+    private final boolean confusables;
+
+    /**
+     * Compiles the normalizer from filter.yml.
+     * @param filter filter.yml configuration.
+     */
+    public MessageNormalizer(FileConfiguration filter) {
+        // Off unless set, since regex statements in configs from before the normalizer may rely on case or accented letters.
+        lowercase = filter.getBoolean("Normalizer.lowercase", false);
+        confusables = filter.getBoolean("Normalizer.confusables", false);
+
+        // Characters that should be removed. Longer strings cannot be stored in the table, so they are removed separately.
+        boolean[] removed = new boolean[Character.MAX_VALUE + 1];
+        if(filter.getBoolean("MiscCharacters.removeWhenFiltering", true)) {
+            for(String toRemove : filter.getStringList("MiscCharacters.characters")) {
+                if(toRemove.length() == 1) {
+                    removed[toRemove.charAt(0)] = true;
+                }
+                else if(!toRemove.isEmpty()) {
+                    removedStrings.add(toRemove);
+                }
+            }
+        }
+
+        // Characters used in place of letters.
+        char[] leetspeak = new char[Character.MAX_VALUE + 1];
+        ConfigurationSection leetspeakSection = filter.getConfigurationSection("Normalizer.leetspeak.characters");
+        if(filter.getBoolean("Normalizer.leetspeak.enabled") && leetspeakSection != null) {
+            for(String key : leetspeakSection.getKeys(false)) {
+                String replacement = leetspeakSection.getString(key);
+
+                if(key.length() == 1 && replacement != null && replacement.length() == 1) {
+                    leetspeak[key.charAt(0)] = replacement.charAt(0);
+                }
+            }
+        }
+
+        for(int i = 0; i <= Character.MAX_VALUE; i++) {
+            char character = (char) i;
+            char mapped = character;
+
+            if(confusables) {
+                mapped = plainLetter(mapped);
+            }
+
+            if(lowercase) {
+                mapped = Character.toLowerCase(mapped);
+            }
+
+            if(removed[character] || removed[mapped]) {
+                table[i] = REMOVE;
+                continue;
+            }
+
+            table[i] = leetspeak[mapped] != 0 ? leetspeak[mapped] : mapped;
+        }
+    }
+
+    /**
+     * Normalizes a message.
+     * @param message Message to normalize.
+     * @return Normalized message. The same String is returned if nothing changed.
+     */
+    public String normalize(String message) {
+        for(String toRemove : removedStrings) {
+            message = message.replace(toRemove, "");
+        }
+
+        // Skips building a new string until a character actually changes.
+        int length = message.length();
+        int index = 0;
+        while(index < length && table[message.charAt(index)] == message.charAt(index)) {
+            index++;
+        }
+
+        if(index == length) {
+            return message;
+        }
+
+        StringBuilder builder = new StringBuilder(length);
+        builder.append(message, 0, index);
+
+        for(; index < length; index++) {
+            char mapped = table[message.charAt(index)];
+
+            if(mapped != REMOVE) {
+                builder.append(mapped);
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Get if messages are checked in lowercase.
+     * @return Whether case is folded.
+     */
+    public boolean lowercase() {
+        return lowercase;
+    }
+
+    /**
+     * Get if look-alike characters are turned into plain letters.
+     * @return Whether confusables are replaced.
+     */
+    public boolean confusables() {
+        return confusables;
+    }
+
+    /**
+     * Turns a character into the plain letter it looks like.
+     * Handles letters from other alphabets, full width characters and accented letters.
+     * @param character Character to convert.
+     * @return Plain letter, or the character itself if it does not look like one.
+     */
+    private static char plainLetter(char character) {
+        int confusable = CONFUSABLES.indexOf(character);
+        if(confusable != -1 && confusable % 2 == 0) {
+            return CONFUSABLES.charAt(confusable + 1);
+        }
+
+        // Full width characters, like "ａ".
+        if(character >= '\uFF01' && character <= '\uFF5E') {
+            return (char) (character - 0xFEE0);
+        }
+
+        // Accented latin letters, like "é".
+        if(character >= '\u00C0' && character <= '\u024F') {
+            String decomposed = Normalizer.normalize(String.valueOf(character), Normalizer.Form.NFD);
+
+            if(decomposed.charAt(0) < 128 && Character.isLetter(decomposed.charAt(0))) {
+                return decomposed.charAt(0);
+            }
+        }
+
+        return character;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.features.filter;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A Bloom filter over the n-grams of everything the filters can block.
+ * A message with none of those n-grams cannot be blocked, so the expensive filters can be skipped for it.
+ * False positives only mean the full check runs.
+ */
+public class NgramPrefilter {
+    /**
+     * Length of the n-grams stored.
+     */
+    public static final int N = 3;
+
+    private final long[] bits;
+    private final int size;
+    private final int hashes;
+    private final boolean[] shortLengths = new boolean[N];
+    private final LongAdder checked = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    /**
+     * Creates the prefilter.
+     * Entries shorter than N are stored whole, and messages are checked for them separately.
+     * @param entries N-grams and short entries to store.
+     * @param falsePositiveRate Chance of a clean n-gram being reported as blocked.
+     */
+    public NgramPrefilter(Collection<String> entries, double falsePositiveRate) {
+        // Standard Bloom filter sizing for the number of entries and false positive rate.
+        int count = Math.max(entries.size(), 1);
+        int size = (int) Math.ceil(-count * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.size = Math.max(size, 64);
+        this.hashes = Math.max(1, (int) Math.round((double) this.size / count * Math.log(2)));
+        this.bits = new long[(this.size + 63) / 64];
+
+        for(String entry : entries) {
+            if(entry.isEmpty()) {
+                continue;
+            }
+
+            int length = Math.min(entry.length(), N);
+            if(entry.length() < N) {
+                shortLengths[length] = true;
+            }
+
+            add(entry, 0, length);
+        }
+    }
+
+    /**
+     * Checks if a message could contain anything the filters block.
+     * @param normalized Normalized message to check.
+     * @return False if the message is definitely clean.
+     */
+    public boolean mightMatch(String normalized) {
+        checked.increment();
+
+        for(int start = 0; start < normalized.length(); start++) {
+            // Full length n-grams.
+            if(start + N <= normalized.length() && contains(normalized, start, start + N)) {
+                return true;
+            }
+
+            // Entries shorter than an n-gram.
+            for(int length = 1; length < N; length++) {
+                if(shortLengths[length] && start + length <= normalized.length() && contains(normalized, start, start + length)) {
+                    return true;
+                }
+            }
+        }
+
+        skipped.increment();
+        return false;
+    }
+
+    /**
+     * Get how many messages have been checked.
+     * @return Checked messages.
+     */
+    public long checked() {
+        return checked.sum();
+    }
+
+    /**
+     * Get how many messages skipped the expensive filters.
+     * @return Skipped messages.
+     */
+    public long skipped() {
+        return skipped.sum();
+    }
+
+    /**
+     * Adds part of a string to the filter.
+     */
+    private void add(String text, int start, int end) {
+        long hash = Fingerprints.hash(text, start, end);
+        int first = (int) hash;
+        int second = (int) (hash >>> 32);
+
+        for(int i = 0; i < hashes; i++) {
+            int bit = Math.floorMod(first + i * second, size);
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Checks if part of a string might be in the filter.
+     */
+    private boolean contains(String text, int start, int end) {
+        long hash = Fingerprints.hash(text, start, end);
+        int first = (int) hash;
+        int second = (int) (hash >>> 32);
+
+        for(int i = 0; i < hashes; i++) {
+            int bit = Math.floorMod(first + i * second, size);
+
+            if((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
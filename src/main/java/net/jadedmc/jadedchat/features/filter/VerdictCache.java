@@ -0,0 +1,105 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.features.filter;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the verdicts of the stateless filters for each normalized message.
+ * Chat repeats itself a lot, so common messages like "gg" skip those filters entirely.
+ * A new cache is made every time the filters are loaded, which clears it.
+ */
+public class VerdictCache {
+    private final Map<String, FilterVerdict[]> verdicts;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates the cache.
+     * @param size Most messages to store, after which the least recently used are removed.
+     */
+    public VerdictCache(int size) {
+        this.verdicts = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, FilterVerdict[]> eldest) {
+                return size() > size;
+            }
+        });
+    }
+
+    /**
+     * Get the cached verdict of a message.
+     * @param normalized Normalized message.
+     * @return Verdict of each filter, in filter order, or null if not cached.
+     */
+    public FilterVerdict[] get(String normalized) {
+        FilterVerdict[] verdict = verdicts.get(normalized);
+
+        if(verdict == null) {
+            misses.increment();
+        }
+        else {
+            hits.increment();
+        }
+
+        return verdict;
+    }
+
+    /**
+     * Caches the verdict of a message.
+     * @param normalized Normalized message.
+     * @param verdict Verdict of each filter, in filter order. Null entries have not been checked yet.
+     */
+    public void put(String normalized, FilterVerdict[] verdict) {
+        verdicts.put(normalized, verdict);
+    }
+
+    /**
+     * Get how many messages were found in the cache.
+     * @return Number of hits.
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get how many messages were not found in the cache.
+     * @return Number of misses.
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Get how many messages are currently cached.
+     * @return Number of cached messages.
+     */
+    public int size() {
+        return verdicts.size();
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.features.filter.filters;
+
+import net.jadedmc.jadedchat.JadedChatPlugin;
+import net.jadedmc.jadedchat.features.filter.CountMinSketch;
+import net.jadedmc.jadedchat.features.filter.Filter;
+import net.jadedmc.jadedchat.features.filter.FilterCost;
+import net.jadedmc.jadedchat.features.filter.FilterVerdict;
+import net.jadedmc.jadedchat.features.filter.Fingerprints;
+import net.jadedmc.jadedchat.settings.Message;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filters messages that many players are sending at once, like during a bot raid.
+ * Messages from every player are counted together in a count-min sketch, so memory use and the cost of
+ * checking a message stay the same no matter how many players are online.
+ */
+public class FloodFilter extends Filter {
+    private final boolean enabled;
+    private final int threshold;
+    private final int minLength;
+    private final CountMinSketch sketch;
+
+    /**
+     * Creates the filter.
+     * @param plugin Instance of the plugin.
+     * @param config filter.yml configuration to load from.
+     */
+    public FloodFilter(JadedChatPlugin plugin, FileConfiguration config) {
+        setSilentFail(config.getBoolean("FloodFilter.silent"));
+        setFailMessage(plugin.getConfigManager().getMessage(Message.FILTER_FLOOD));
+
+        enabled = config.getBoolean("FloodFilter.enabled");
+        threshold = config.getInt("FloodFilter.threshold", 5);
+        minLength = config.getInt("FloodFilter.minLength", 8);
+
+        long window = TimeUnit.SECONDS.toMillis(Math.max(1, config.getInt("FloodFilter.window", 30)));
+        sketch = enabled ? new CountMinSketch(4, 4096, 6, window) : null;
+    }
+
+    /**
+     * Checks a message against the filter.
+     * @param player Player who sent the message.
+     * @param normalized Message after being normalized.
+     * @return Verdict of the message.
+     */
+    @Override
+    public FilterVerdict check(Player player, String normalized) {
+        // Exit if the filter is disabled.
+        if(!enabled) {
+            return FilterVerdict.PASS;
+        }
+
+        // Checks if the player has bypass permissions.
+        if(player.hasPermission("jadedchat.bypass.floodfilter")) {
+            return FilterVerdict.PASS;
+        }
+
+        // Only letters and numbers are counted, so adding punctuation or spaces does not make a new message.
+        StringBuilder key = new StringBuilder(normalized.length());
+        for(int i = 0; i < normalized.length(); i++) {
+            char character = normalized.charAt(i);
+
+            if(Character.isLetterOrDigit(character)) {
+                key.append(character);
+            }
+        }
+
+        // Short messages, like "gg", are sent by many players at once without being spam.
+        if(key.length() <= minLength) {
+            return FilterVerdict.PASS;
+        }
+
+        // Blocked messages are still counted, so the message stays blocked while the flood continues.
+        if(sketch.add(Fingerprints.hash(key, 0, key.length()), System.currentTimeMillis()) > threshold) {
+            return FilterVerdict.block(this, "Sent too often across the server");
+        }
+
+        return FilterVerdict.PASS;
+    }
+
+    /**
+     * Messages are hashed in a single pass, and counted in a fixed-size sketch.
+     * @return Cheap.
+     */
+    @Override
+    public FilterCost cost() {
+        return FilterCost.CHEAP;
+    }
+
+    /**
+     * The sketch is synchronized, so it can be shared between threads.
+     * @return True.
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+}
@@ -26,65 +26,279 @@ package net.jadedmc.jadedchat.features.filter.filters;
 
 import net.jadedmc.jadedchat.features.filter.Filter;
 import net.jadedmc.jadedchat.JadedChatPlugin;
+import net.jadedmc.jadedchat.features.filter.FilterCost;
+import net.jadedmc.jadedchat.features.filter.FilterRule;
+import net.jadedmc.jadedchat.features.filter.FilterVerdict;
+import net.jadedmc.jadedchat.features.filter.MessageNormalizer;
+import net.jadedmc.jadedchat.features.filter.NgramPrefilter;
+import net.jadedmc.jadedchat.features.filter.regex.RegexCompiler;
+import net.jadedmc.jadedchat.features.filter.regex.RegexProgram;
 import net.jadedmc.jadedchat.settings.Message;
+import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Filters chat based off configured regex statements.
+ * All statements are compiled into a single program when the filter is loaded.
+ * The program matches in linear time, so a badly written statement cannot stall the server.
  */
 public class RegexFilter extends Filter {
     private final JadedChatPlugin plugin;
+    private final boolean enabled;
+    private final List<FilterRule> rules = new ArrayList<>();
+    private final RegexProgram program;
+    private final long timeBudget;
+    private final boolean blockOnTimeout;
+    private final AtomicLong lastTimeoutWarning = new AtomicLong();
+    private final LongAdder unreportedTimeouts = new LongAdder();
+    private final FilterRule timedOut = new FilterRule("(timed out)", false);
+    private final List<RegexProgram> rulePrograms = new ArrayList<>();
+    private final int profileRate;
 
     /**
      * Creates the filter.
      * @param plugin Instance of the plugin.
+     * @param config filter.yml configuration to load from.
+     * @param normalizer Normalizer messages go through, so statements it would stop matching can be reported.
      */
-    public RegexFilter(JadedChatPlugin plugin) {
+    public RegexFilter(JadedChatPlugin plugin, FileConfiguration config, MessageNormalizer normalizer) {
         this.plugin = plugin;
-        setSilentFail(plugin.getConfigManager().getFilter().getBoolean("RegexFilter.silent"));
+        setSilentFail(config.getBoolean("RegexFilter.silent"));
         setFailMessage(plugin.getConfigManager().getMessage(Message.FILTER_REGEX));
+
+        enabled = config.getBoolean("RegexFilter.enabled");
+
+        // Messages that take longer than this to check are blocked by default, so padding a message cannot get it past the filter.
+        timeBudget = TimeUnit.MILLISECONDS.toNanos(config.getInt("RegexFilter.timeBudget", 5));
+        blockOnTimeout = !config.getString("RegexFilter.onTimeout", "block").equalsIgnoreCase("pass");
+
+        // One in this many messages also times each statement on its own, to find slow statements.
+        profileRate = config.getInt("RegexFilter.profileRate", 100);
+
+        // Compiles every regex statement into one program. Statements using unsupported features are skipped.
+        RegexCompiler compiler = new RegexCompiler();
+        for(String filter : config.getStringList("RegexFilter.filter")) {
+            try {
+                compiler.addRule(filter);
+            }
+            catch (IllegalArgumentException exception) {
+                plugin.getLogger().warning("Skipping unsupported regex filter \"" + filter + "\": " + exception.getMessage());
+                continue;
+            }
+
+            rules.add(new FilterRule(filter));
+            warnUnmatchable(filter, normalizer);
+
+            // Each statement is also compiled on its own, so it can be timed.
+            if(profileRate > 0) {
+                RegexCompiler ruleCompiler = new RegexCompiler();
+                ruleCompiler.addRule(filter);
+                rulePrograms.add(ruleCompiler.compile());
+            }
+        }
+
+        program = rules.isEmpty() ? null : compiler.compile();
+    }
+
+    /**
+     * Checks a message against the filter, and says which statement blocked it.
+     * @param player Player who sent the message.
+     * @param normalized Message after being normalized.
+     * @return Verdict of the message.
+     */
+    @Override
+    public FilterVerdict check(Player player, String normalized) {
+        // Checks if the player has bypass permissions.
+        if(canBypass(player)) {
+            return FilterVerdict.PASS;
+        }
+
+        FilterVerdict verdict = match(normalized);
+
+        // Records which statement caught the message.
+        if(verdict.rule() != null) {
+            verdict.rule().hit();
+        }
+
+        return verdict;
     }
 
     /**
-     * Checks if a message passes the filter.
+     * Regex statements only depend on the message, so their verdicts can be cached.
+     * @return True.
+     */
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
+    /**
+     * Check if a player skips the filter.
      * @param player Player who sent the message.
-     * @param message Message they sent.
-     * @return If the message passes the filter.
+     * @return Whether the player has bypass permissions.
      */
     @Override
-    public boolean passesFilter(Player player, String message) {
+    public boolean canBypass(Player player) {
+        return player.hasPermission("jadedchat.bypass.regexfilter");
+    }
+
+    /**
+     * Times how long each regex statement takes to check a message on its own.
+     * Runs on an async task, so chat is never delayed by it.
+     * @param normalized Message after being normalized.
+     */
+    private void profile(String normalized) {
+        for(int i = 0; i < rulePrograms.size(); i++) {
+            long start = System.nanoTime();
+            rulePrograms.get(i).find(normalized, start + timeBudget);
+            rules.get(i).timings().record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Regex statements are checked against every message, so this is the most expensive filter.
+     * @return Expensive.
+     */
+    @Override
+    public FilterCost cost() {
+        return FilterCost.EXPENSIVE;
+    }
+
+    /**
+     * The compiled program does not change after loading, so it can be shared between threads.
+     * @return True.
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    /**
+     * Finds the regex statement a message matches.
+     * @param normalized Message after being normalized.
+     * @return Verdict with the matching statement and where it matched.
+     */
+    @Override
+    public FilterVerdict match(String normalized) {
         // Exit if the filter is disabled.
-        if(!plugin.getConfigManager().getFilter().getBoolean("RegexFilter.enabled")) {
-            return true;
+        if(!enabled || program == null) {
+            return FilterVerdict.PASS;
         }
 
-        // Checks if the player has bypass permissions.
-        if(player.hasPermission("jadedcore.bypass.regexfilter")) {
-            return true;
+        // Checks if any regex statement matches.
+        int[] span = new int[2];
+        int match = program.find(normalized, System.nanoTime() + timeBudget, span);
+
+        // Every so often, times each statement on its own, after the message has been checked.
+        if(profileRate > 0 && ThreadLocalRandom.current().nextInt(profileRate) == 0) {
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> profile(normalized));
         }
 
-        // Remove misc characters before filtering.
-        String toFilter = message;
-        for(String toRemove : plugin.getConfigManager().getFilter().getStringList("MiscCharacters.characters")) {
-            toFilter = toFilter.replace(toRemove, "");
+        if(match == -1) {
+            return FilterVerdict.PASS;
         }
 
-        // Loops through each regex statement in the configured list.
-        for(String filter : plugin.getConfigManager().getFilter().getStringList("RegexFilter.filter")) {
-            Pattern pattern = Pattern.compile(filter);
-            Matcher matcher = pattern.matcher(toFilter);
+        // Messages that take too long are not cached, since the next check could be faster.
+        if(match == RegexProgram.TIMED_OUT) {
+            warnTimeout();
+            return blockOnTimeout ? FilterVerdict.block(this, timedOut, 0, normalized.length()) : FilterVerdict.pass(timedOut);
+        }
+
+        return FilterVerdict.block(this, rules.get(match), span[0], span[1]);
+    }
 
-            // Checks if there is a match.
-            if(matcher.find()) {
-                // If so, the message fails.
-                return false;
+    /**
+     * Get every n-gram the regex statements can match.
+     * @return N-grams of the statements, or null if a statement can match too many.
+     */
+    @Override
+    public Collection<String> ngrams() {
+        if(!enabled || program == null) {
+            return Collections.emptyList();
+        }
+
+        return program.ngrams(NgramPrefilter.N, 4096);
+    }
+
+    /**
+     * Get the loaded regex statements, in the order they are configured.
+     * @return All regex rules.
+     */
+    @Override
+    public List<FilterRule> rules() {
+        return Collections.unmodifiableList(rules);
+    }
+
+    /**
+     * Get the rule that counts messages the filter ran out of time on.
+     * @return Timed out rule.
+     */
+    public FilterRule timedOut() {
+        return timedOut;
+    }
+
+    /**
+     * Get if messages the filter runs out of time on are blocked.
+     * @return Whether timed out messages are blocked.
+     */
+    public boolean blockOnTimeout() {
+        return blockOnTimeout;
+    }
+
+    /**
+     * Warns about a statement that can no longer match, since the normalizer removes what it looks for.
+     * @param filter Regex statement to check.
+     * @param normalizer Normalizer messages go through.
+     */
+    private void warnUnmatchable(String filter, MessageNormalizer normalizer) {
+        boolean uppercase = false;
+        boolean nonAscii = false;
+
+        for(int i = 0; i < filter.length(); i++) {
+            char character = filter.charAt(i);
+
+            // Escapes like \W and \S are not literal letters.
+            if(character == '\\') {
+                i++;
+                continue;
             }
+
+            uppercase |= Character.isUpperCase(character);
+            nonAscii |= character > 127;
         }
 
-        // The message passes.
-        return true;
+        // Statements starting with (?i) ignore case, so lowercase messages still match them.
+        if(uppercase && normalizer.lowercase() && !filter.startsWith("(?i)")) {
+            plugin.getLogger().warning("Regex filter \"" + filter + "\" has uppercase letters, but messages are checked in lowercase (Normalizer.lowercase), so they will never match.");
+        }
+
+        if(nonAscii && normalizer.confusables()) {
+            plugin.getLogger().warning("Regex filter \"" + filter + "\" has non-ASCII characters, but look-alike characters are replaced (Normalizer.confusables), so they may never match.");
+        }
+    }
+
+    /**
+     * Logs that the filter ran out of time, at most once a minute.
+     * The message itself is left out, so players cannot use timeouts to flood the log.
+     */
+    private void warnTimeout() {
+        unreportedTimeouts.increment();
+
+        long now = System.currentTimeMillis();
+        long last = lastTimeoutWarning.get();
+        if(now - last < 60000 || !lastTimeoutWarning.compareAndSet(last, now)) {
+            return;
+        }
+
+        plugin.getLogger().warning("Regex filter ran out of time on " + unreportedTimeouts.sumThenReset() + " message(s) in the last minute. They were " + (blockOnTimeout ? "blocked." : "let through."));
     }
-}
\ No newline at end of file
+}
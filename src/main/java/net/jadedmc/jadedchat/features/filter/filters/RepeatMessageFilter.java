@@ -26,66 +26,104 @@ package net.jadedmc.jadedchat.features.filter.filters;
 
 import net.jadedmc.jadedchat.JadedChatPlugin;
 import net.jadedmc.jadedchat.features.filter.Filter;
+import net.jadedmc.jadedchat.features.filter.FilterCost;
+import net.jadedmc.jadedchat.features.filter.FilterVerdict;
+import net.jadedmc.jadedchat.features.filter.Fingerprints;
 import net.jadedmc.jadedchat.settings.Message;
+import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Filters messages that are sent multiple times in a row.
+ * Filters messages that are too similar to one of the player's recent messages.
+ * Only a fixed-size fingerprint of each message is kept, so memory use per player does not depend on
+ * how long their messages are, and comparing against their history is a handful of bit operations.
  */
 public class RepeatMessageFilter extends Filter {
-    private final JadedChatPlugin plugin;
-    private final Map<Player, String> lastMessage = new HashMap<>();
+    private final boolean enabled;
+    private final int history;
+    private final int similarity;
+    private final int minLength;
+    private final Map<UUID, long[]> recentMessages = new ConcurrentHashMap<>();
 
     /**
      * Creates the filter.
      * @param plugin Instance of the plugin.
+     * @param config filter.yml configuration to load from.
      */
-    public RepeatMessageFilter(JadedChatPlugin plugin) {
-        this.plugin = plugin;
+    public RepeatMessageFilter(JadedChatPlugin plugin, FileConfiguration config) {
         setSilentFail(false);
         setFailMessage(plugin.getConfigManager().getMessage(Message.FILTER_REPEAT_MESSAGE));
+
+        enabled = config.getBoolean("RepeatMessageFilter.enabled");
+        history = Math.max(1, config.getInt("RepeatMessageFilter.history", 3));
+        similarity = config.getInt("RepeatMessageFilter.similarity", 85);
+        minLength = config.getInt("RepeatMessageFilter.minLength", 5);
     }
 
     /**
-     * Checks if a message passes the filter.
+     * Checks a message against the filter.
      * @param player Player who sent the message.
-     * @param message Message they sent.
-     * @return If the message passes the filter.
+     * @param normalized Message after being normalized.
+     * @return Verdict of the message.
      */
     @Override
-    public boolean passesFilter(Player player, String message) {
+    public FilterVerdict check(Player player, String normalized) {
         // Exit if the filter is disabled.
-        if(!plugin.getConfigManager().getFilter().getBoolean("RepeatMessageFilter.enabled")) {
-            return true;
+        if(!enabled) {
+            return FilterVerdict.PASS;
         }
 
         // Checks if the player has bypass permissions.
-        if(player.hasPermission("jadedcore.bypass.repeatfilter")) {
-            return true;
+        if(player.hasPermission("jadedchat.bypass.repeatfilter")) {
+            return FilterVerdict.PASS;
         }
 
-        // Checks if the message is the first sent.
-        if(lastMessage.get(player) == null) {
-            lastMessage.put(player, message);
-            return true;
+        // Short messages, like "gg", are allowed to be repeated.
+        if(normalized.length() <= minLength) {
+            return FilterVerdict.PASS;
         }
 
-        // Checks if the message is too short or is different enough from the past message.
-        if(message.length() <= 5 || (message.length() * 2) <= lastMessage.get(player).length() || (lastMessage.get(player).length() * 2) <= message.length()) {
-            lastMessage.put(player, message);
-            return true;
-        }
+        long fingerprint = Fingerprints.simHash(normalized);
+
+        // The first slot holds the number of messages sent, the rest are a ring of their fingerprints.
+        long[] recent = recentMessages.computeIfAbsent(player.getUniqueId(), uuid -> new long[history + 1]);
+        synchronized (recent) {
+            int stored = (int) Math.min(recent[0], history);
+
+            // Checks if the message is similar to one of the recent messages.
+            for(int i = 1; i <= stored; i++) {
+                if(Fingerprints.similarity(fingerprint, recent[i]) >= similarity) {
+                    return FilterVerdict.block(this, "Too similar to a recent message");
+                }
+            }
 
-        // Checks if the message and last message are similar to each other.
-        if(message.contains(lastMessage.get(player)) || lastMessage.get(player).contains(message)) {
-            return false;
+            // Stores the message, replacing the oldest one.
+            recent[(int) (recent[0] % history) + 1] = fingerprint;
+            recent[0]++;
         }
 
-        // Stores the message.
-        lastMessage.put(player, message);
+        return FilterVerdict.PASS;
+    }
+
+    /**
+     * Messages are fingerprinted in a single pass, and compared to a few recent fingerprints.
+     * @return Cheap.
+     */
+    @Override
+    public FilterCost cost() {
+        return FilterCost.CHEAP;
+    }
+
+    /**
+     * Each player's history is locked while it is checked and updated.
+     * @return True.
+     */
+    @Override
+    public boolean isThreadSafe() {
         return true;
     }
 
@@ -96,6 +134,6 @@ public class RepeatMessageFilter extends Filter {
      */
     @Override
     public void removePlayer(Player player) {
-        lastMessage.remove(player);
+        recentMessages.remove(player.getUniqueId());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,273 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.features.filter.filters;
+
+import net.jadedmc.jadedchat.JadedChatPlugin;
+import net.jadedmc.jadedchat.features.filter.Filter;
+import net.jadedmc.jadedchat.features.filter.FilterCost;
+import net.jadedmc.jadedchat.features.filter.FilterRule;
+import net.jadedmc.jadedchat.features.filter.FilterVerdict;
+import net.jadedmc.jadedchat.features.filter.MessageNormalizer;
+import net.jadedmc.jadedchat.features.filter.NgramPrefilter;
+import net.jadedmc.jadedchat.settings.Message;
+import net.jadedmc.jadedchat.utils.AhoCorasick;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Filters chat based off a list of blocked words, loaded from a file.
+ * Words are stored in an Aho-Corasick automaton, so a message is checked in a single pass no matter how many words are blocked.
+ */
+public class WordFilter extends Filter {
+    private final JadedChatPlugin plugin;
+    private final boolean enabled;
+    private final boolean wholeWords;
+    private final List<FilterRule> words = new ArrayList<>();
+    private final Set<String> ngrams = new HashSet<>();
+
+    private final AhoCorasick automaton;
+
+    /**
+     * Creates the filter.
+     * @param plugin Instance of the plugin.
+     * @param config filter.yml configuration to load from.
+     * @param normalizer Normalizer messages go through, so words can be stored the same way.
+     */
+    public WordFilter(JadedChatPlugin plugin, FileConfiguration config, MessageNormalizer normalizer) {
+        this.plugin = plugin;
+        setSilentFail(config.getBoolean("WordFilter.silent", true));
+        setFailMessage(plugin.getConfigManager().getMessage(Message.FILTER_WORD));
+
+        enabled = config.getBoolean("WordFilter.enabled");
+        wholeWords = config.getBoolean("WordFilter.wholeWords", true);
+
+        // Normalized words, in the same order as their rules.
+        Map<String, FilterRule> normalizedWords = new LinkedHashMap<>();
+
+        for(String line : readWords(config)) {
+            String trimmed = line.trim();
+
+            // Skips blank lines and comments.
+            if(trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+
+            // Words are normalized the same way as messages, so they can be compared directly.
+            String word = normalizer.normalize(trimmed);
+            if(word.isEmpty()) {
+                continue;
+            }
+
+            // Any message containing the word also contains its first n-gram.
+            ngrams.add(word.substring(0, Math.min(word.length(), NgramPrefilter.N)));
+
+            // Duplicate words share the first entry.
+            if(!normalizedWords.containsKey(word)) {
+                FilterRule rule = new FilterRule(trimmed);
+                normalizedWords.put(word, rule);
+                words.add(rule);
+            }
+        }
+
+        automaton = new AhoCorasick(new ArrayList<>(normalizedWords.keySet()));
+    }
+
+    /**
+     * Checks a message against the filter, and says which word blocked it.
+     * @param player Player who sent the message.
+     * @param normalized Message after being normalized.
+     * @return Verdict of the message.
+     */
+    @Override
+    public FilterVerdict check(Player player, String normalized) {
+        // Checks if the player has bypass permissions.
+        if(canBypass(player)) {
+            return FilterVerdict.PASS;
+        }
+
+        FilterVerdict verdict = match(normalized);
+
+        // Records which word caught the message.
+        if(verdict.rule() != null) {
+            verdict.rule().hit();
+        }
+
+        return verdict;
+    }
+
+    /**
+     * Blocked words only depend on the message, so their verdicts can be cached.
+     * @return True.
+     */
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
+    /**
+     * Check if a player skips the filter.
+     * @param player Player who sent the message.
+     * @return Whether the player has bypass permissions.
+     */
+    @Override
+    public boolean canBypass(Player player) {
+        return player.hasPermission("jadedchat.bypass.wordfilter");
+    }
+
+    /**
+     * Words are found in a single pass over the message.
+     * @return Cheap.
+     */
+    @Override
+    public FilterCost cost() {
+        return FilterCost.CHEAP;
+    }
+
+    /**
+     * The automaton does not change after loading, so it can be shared between threads.
+     * @return True.
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    /**
+     * Finds the first blocked word in a message.
+     * @param normalized Message after being normalized.
+     * @return Verdict with the blocked word and where it is.
+     */
+    @Override
+    public FilterVerdict match(String normalized) {
+        // Exit if the filter is disabled.
+        if(!enabled || words.isEmpty()) {
+            return FilterVerdict.PASS;
+        }
+
+        int[] span = new int[2];
+        int word = find(normalized, span);
+        return word == -1 ? FilterVerdict.PASS : FilterVerdict.block(this, words.get(word), span[0], span[1]);
+    }
+
+    /**
+     * Get the first n-gram of every blocked word.
+     * @return N-grams of the words.
+     */
+    @Override
+    public Collection<String> ngrams() {
+        return Collections.unmodifiableSet(ngrams);
+    }
+
+    /**
+     * Get the loaded words, in the order they are in the file.
+     * @return All blocked words.
+     */
+    public List<FilterRule> words() {
+        return Collections.unmodifiableList(words);
+    }
+
+    /**
+     * Get the loaded words, in the order they are in the file.
+     * @return All blocked words.
+     */
+    @Override
+    public List<FilterRule> rules() {
+        return words();
+    }
+
+    /**
+     * Finds the first blocked word in a message, in a single pass.
+     * When several words end at the same place, the longest one is used.
+     * @param message Normalized message to search.
+     * @param span Array the start and end of the word are stored in.
+     * @return Index of the word found, or -1 if there are none.
+     */
+    private int find(String message, int[] span) {
+        int length = message.length();
+        int state = 0;
+
+        for(int index = 0; index < length; index++) {
+            state = automaton.next(state, message.charAt(index));
+            int[] outputs = automaton.outputs(state);
+
+            // Whole words have to end at the end of a word.
+            if(outputs.length == 0 || (wholeWords && index + 1 < length && isWordCharacter(message.charAt(index + 1)))) {
+                continue;
+            }
+
+            for(int word : outputs) {
+                int start = index - automaton.length(word) + 1;
+
+                // Whole words also have to start at the beginning of a word.
+                if(wholeWords && start > 0 && isWordCharacter(message.charAt(start - 1))) {
+                    continue;
+                }
+
+                span[0] = start;
+                span[1] = index + 1;
+                return word;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Checks if a character is part of a word.
+     * @param character Character to check.
+     * @return Whether it is a letter or digit.
+     */
+    private static boolean isWordCharacter(char character) {
+        return Character.isLetterOrDigit(character);
+    }
+
+    /**
+     * Reads the blocked words file configured in filter.yml.
+     * @param config filter.yml configuration.
+     * @return Every line of the file.
+     */
+    private List<String> readWords(FileConfiguration config) {
+        String fileName = config.getString("WordFilter.file", "blocked-words.txt");
+        File file = new File(plugin.getDataFolder(), fileName);
+
+        if(!enabled || !file.exists()) {
+            return Collections.emptyList();
+        }
+
+        try {
+            return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        }
+        catch (IOException exception) {
+            exception.printStackTrace();
+            return Collections.emptyList();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.features.filter.regex;
+
+import java.util.Arrays;
+
+/**
+ * A set of characters in a rule, like [a-z] or \d.
+ * Stored as sorted, non-overlapping ranges.
+ */
+class CharClass {
+    private final char[] ranges;
+    private final boolean negated;
+
+    /**
+     * Creates the character class.
+     * @param ranges Pairs of the first and last character of each range.
+     * @param negated Whether the class matches everything outside the ranges.
+     */
+    CharClass(char[] ranges, boolean negated) {
+        this.ranges = normalize(ranges);
+        this.negated = negated;
+    }
+
+    /**
+     * Checks if a character is in the class.
+     * @param character Character to check.
+     * @return Whether it is in the class.
+     */
+    boolean matches(char character) {
+        // Binary search over the range starts.
+        int low = 0;
+        int high = ranges.length / 2 - 1;
+
+        while(low <= high) {
+            int middle = (low + high) >>> 1;
+
+            if(character < ranges[middle * 2]) {
+                high = middle - 1;
+            }
+            else if(character > ranges[middle * 2 + 1]) {
+                low = middle + 1;
+            }
+            else {
+                return !negated;
+            }
+        }
+
+        return negated;
+    }
+
+    /**
+     * Lists every character in the class.
+     * @param limit Most characters to list.
+     * @return Characters in the class, or null if it is negated or has more than the limit.
+     */
+    char[] characters(int limit) {
+        if(negated) {
+            return null;
+        }
+
+        int count = 0;
+        for(int i = 0; i < ranges.length; i += 2) {
+            count += ranges[i + 1] - ranges[i] + 1;
+        }
+
+        if(count > limit) {
+            return null;
+        }
+
+        char[] characters = new char[count];
+        int index = 0;
+        for(int i = 0; i < ranges.length; i += 2) {
+            for(char character = ranges[i]; character <= ranges[i + 1]; character++) {
+                characters[index++] = character;
+            }
+        }
+
+        return characters;
+    }
+
+    /**
+     * Checks if a character is a word character, as used by \w and \b.
+     * @param character Character to check.
+     * @return Whether it is a word character.
+     */
+    static boolean isWordCharacter(char character) {
+        return (character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z') || (character >= '0' && character <= '9') || character == '_';
+    }
+
+    /**
+     * Sorts and merges ranges.
+     * @param ranges Pairs of the first and last character of each range.
+     * @return Sorted ranges without overlaps.
+     */
+    private static char[] normalize(char[] ranges) {
+        int count = ranges.length / 2;
+        Integer[] order = new Integer[count];
+        for(int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Character.compare(ranges[a * 2], ranges[b * 2]));
+
+        char[] merged = new char[ranges.length];
+        int size = 0;
+
+        for(int index : order) {
+            char start = ranges[index * 2];
+            char end = ranges[index * 2 + 1];
+
+            if(size > 0 && start <= merged[size - 1] + 1) {
+                merged[size - 1] = (char) Math.max(merged[size - 1], end);
+            }
+            else {
+                merged[size++] = start;
+                merged[size++] = end;
+            }
+        }
+
+        return Arrays.copyOf(merged, size);
+    }
+}
@@ -0,0 +1,624 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.features.filter.regex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles filter rules into a single RegexProgram.
+ * Supports the parts of regex that can be matched in linear time: literals, classes, groups,
+ * alternation, quantifiers, anchors, word boundaries and a leading (?i).
+ * Backreferences, lookarounds, possessive quantifiers and other flags are rejected.
+ */
+public class RegexCompiler {
+    // Keeps a single rule from blowing up the program with something like a{1000}{1000}.
+    private static final int MAX_REPEAT = 100;
+    private static final int MAX_RULE_SIZE = 10000;
+
+    private final List<Node> rules = new ArrayList<>();
+    private final List<Boolean> caseInsensitive = new ArrayList<>();
+
+    /**
+     * Adds a rule to the program.
+     * @param rule Regex of the rule.
+     * @return Index of the rule, as returned by RegexProgram.find().
+     * @throws IllegalArgumentException If the rule is invalid or uses unsupported syntax.
+     */
+    public int addRule(String rule) {
+        Parser parser = new Parser(rule);
+        Node node = parser.parse();
+
+        if(node.size() > MAX_RULE_SIZE) {
+            throw new IllegalArgumentException("rule is too large");
+        }
+
+        rules.add(node);
+        caseInsensitive.add(parser.caseInsensitive);
+        return rules.size() - 1;
+    }
+
+    /**
+     * Compiles every added rule into one program.
+     * @return Compiled program.
+     */
+    public RegexProgram compile() {
+        Emitter emitter = new Emitter();
+
+        // Branches out to every rule from the first instruction.
+        for(int i = 0; i < rules.size(); i++) {
+            int split = -1;
+
+            if(i < rules.size() - 1) {
+                split = emitter.emit(RegexProgram.SPLIT, 0, 0);
+                emitter.x.set(split, emitter.size());
+            }
+
+            emitter.foldCase = caseInsensitive.get(i);
+            rules.get(i).emit(emitter);
+            emitter.emit(RegexProgram.MATCH, i, 0);
+
+            if(split != -1) {
+                emitter.y.set(split, emitter.size());
+            }
+        }
+
+        // A program without rules never matches.
+        if(rules.isEmpty()) {
+            emitter.emit(RegexProgram.CLASS, emitter.addClass(new CharClass(new char[0], false)), 0);
+        }
+
+        return emitter.build();
+    }
+
+    /**
+     * Builds the instructions of a program.
+     */
+    private static class Emitter {
+        private final List<Integer> ops = new ArrayList<>();
+        private final List<Integer> x = new ArrayList<>();
+        private final List<Integer> y = new ArrayList<>();
+        private final List<CharClass> classes = new ArrayList<>();
+        private boolean foldCase;
+
+        private int emit(int op, int x, int y) {
+            ops.add(op);
+            this.x.add(x);
+            this.y.add(y);
+            return ops.size() - 1;
+        }
+
+        private int addClass(CharClass charClass) {
+            classes.add(charClass);
+            return classes.size() - 1;
+        }
+
+        private int size() {
+            return ops.size();
+        }
+
+        private RegexProgram build() {
+            return new RegexProgram(toArray(ops), toArray(x), toArray(y), classes.toArray(new CharClass[0]));
+        }
+
+        private static int[] toArray(List<Integer> list) {
+            return list.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * A part of a parsed rule.
+     */
+    private interface Node {
+        /**
+         * Adds the instructions for the node.
+         * @param emitter Emitter to add to.
+         */
+        void emit(Emitter emitter);
+
+        /**
+         * Get the number of instructions the node will add.
+         * @return Number of instructions.
+         */
+        int size();
+    }
+
+    /**
+     * Matches a single character.
+     */
+    private record Literal(char character) implements Node {
+        @Override
+        public void emit(Emitter emitter) {
+            if(emitter.foldCase) {
+                emitter.emit(RegexProgram.CHAR_FOLD, Character.toLowerCase(character), 0);
+            }
+            else {
+                emitter.emit(RegexProgram.CHAR, character, 0);
+            }
+        }
+
+        @Override
+        public int size() {
+            return 1;
+        }
+    }
+
+    /**
+     * Matches a character from a class, or any character if the class is null.
+     */
+    private record ClassNode(CharClass charClass) implements Node {
+        @Override
+        public void emit(Emitter emitter) {
+            if(charClass == null) {
+                emitter.emit(RegexProgram.ANY, 0, 0);
+            }
+            else {
+                emitter.emit(emitter.foldCase ? RegexProgram.CLASS_FOLD : RegexProgram.CLASS, emitter.addClass(charClass), 0);
+            }
+        }
+
+        @Override
+        public int size() {
+            return 1;
+        }
+    }
+
+    /**
+     * Matches the empty string, as long as an assertion holds.
+     */
+    private record Assertion(int type) implements Node {
+        @Override
+        public void emit(Emitter emitter) {
+            emitter.emit(RegexProgram.ASSERT, type, 0);
+        }
+
+        @Override
+        public int size() {
+            return 1;
+        }
+    }
+
+    /**
+     * Matches a list of nodes one after another.
+     */
+    private record Concat(List<Node> nodes) implements Node {
+        @Override
+        public void emit(Emitter emitter) {
+            for(Node node : nodes) {
+                node.emit(emitter);
+            }
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for(Node node : nodes) {
+                size += node.size();
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Matches any one of a list of nodes.
+     */
+    private record Alternation(List<Node> nodes) implements Node {
+        @Override
+        public void emit(Emitter emitter) {
+            List<Integer> jumps = new ArrayList<>();
+
+            for(int i = 0; i < nodes.size(); i++) {
+                if(i == nodes.size() - 1) {
+                    nodes.get(i).emit(emitter);
+                    break;
+                }
+
+                int split = emitter.emit(RegexProgram.SPLIT, 0, 0);
+                emitter.x.set(split, emitter.size());
+                nodes.get(i).emit(emitter);
+                jumps.add(emitter.emit(RegexProgram.JUMP, 0, 0));
+                emitter.y.set(split, emitter.size());
+            }
+
+            for(int jump : jumps) {
+                emitter.x.set(jump, emitter.size());
+            }
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for(Node node : nodes) {
+                size += node.size() + 2;
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Matches a node a number of times. A max of -1 means there is no limit.
+     */
+    private record Repeat(Node node, int min, int max) implements Node {
+        @Override
+        public void emit(Emitter emitter) {
+            for(int i = 0; i < min; i++) {
+                node.emit(emitter);
+            }
+
+            // Unlimited: loops back over the node for as long as it keeps matching.
+            if(max == -1) {
+                int split = emitter.emit(RegexProgram.SPLIT, 0, 0);
+                emitter.x.set(split, emitter.size());
+                node.emit(emitter);
+                emitter.emit(RegexProgram.JUMP, split, 0);
+                emitter.y.set(split, emitter.size());
+                return;
+            }
+
+            // Limited: each extra match is optional.
+            List<Integer> splits = new ArrayList<>();
+            for(int i = min; i < max; i++) {
+                int split = emitter.emit(RegexProgram.SPLIT, 0, 0);
+                emitter.x.set(split, emitter.size());
+                splits.add(split);
+                node.emit(emitter);
+            }
+
+            for(int split : splits) {
+                emitter.y.set(split, emitter.size());
+            }
+        }
+
+        @Override
+        public int size() {
+            int copies = max == -1 ? min + 1 : max;
+            return (node.size() + 2) * Math.max(copies, 1);
+        }
+    }
+
+    /**
+     * Turns the text of a rule into nodes.
+     */
+    private static class Parser {
+        private final String pattern;
+        private int position = 0;
+        private boolean caseInsensitive = false;
+
+        private Parser(String pattern) {
+            this.pattern = pattern;
+        }
+
+        private Node parse() {
+            // The only supported flag is case insensitivity for the whole rule.
+            if(pattern.startsWith("(?i)")) {
+                caseInsensitive = true;
+                position = 4;
+            }
+
+            Node node = parseAlternation();
+
+            if(position < pattern.length()) {
+                throw error("unmatched ')'");
+            }
+
+            return node;
+        }
+
+        private Node parseAlternation() {
+            List<Node> nodes = new ArrayList<>();
+            nodes.add(parseConcat());
+
+            while(position < pattern.length() && pattern.charAt(position) == '|') {
+                position++;
+                nodes.add(parseConcat());
+            }
+
+            return nodes.size() == 1 ? nodes.get(0) : new Alternation(nodes);
+        }
+
+        private Node parseConcat() {
+            List<Node> nodes = new ArrayList<>();
+
+            while(position < pattern.length() && pattern.charAt(position) != '|' && pattern.charAt(position) != ')') {
+                nodes.add(parseRepeat());
+            }
+
+            return nodes.size() == 1 ? nodes.get(0) : new Concat(nodes);
+        }
+
+        private Node parseRepeat() {
+            Node node = parseAtom();
+
+            while(position < pattern.length()) {
+                char character = pattern.charAt(position);
+                int min;
+                int max;
+
+                if(character == '*') {
+                    min = 0;
+                    max = -1;
+                    position++;
+                }
+                else if(character == '+') {
+                    min = 1;
+                    max = -1;
+                    position++;
+                }
+                else if(character == '?') {
+                    min = 0;
+                    max = 1;
+                    position++;
+                }
+                else if(character == '{') {
+                    int[] bounds = parseBounds();
+                    min = bounds[0];
+                    max = bounds[1];
+                }
+                else {
+                    break;
+                }
+
+                // Lazy quantifiers do not change whether a rule matches, possessive ones need backtracking.
+                if(position < pattern.length() && pattern.charAt(position) == '?') {
+                    position++;
+                }
+                else if(position < pattern.length() && pattern.charAt(position) == '+') {
+                    throw error("possessive quantifiers are not supported");
+                }
+
+                node = new Repeat(node, min, max);
+            }
+
+            return node;
+        }
+
+        private int[] parseBounds() {
+            int close = pattern.indexOf('}', position);
+            if(close == -1) {
+                throw error("unclosed '{'");
+            }
+
+            String[] bounds = pattern.substring(position + 1, close).split(",", -1);
+            int min;
+            int max;
+
+            try {
+                min = Integer.parseInt(bounds[0].trim());
+                max = bounds.length == 1 ? min : (bounds[1].trim().isEmpty() ? -1 : Integer.parseInt(bounds[1].trim()));
+            }
+            catch (NumberFormatException exception) {
+                throw error("invalid repetition");
+            }
+
+            if(bounds.length > 2 || min < 0 || (max != -1 && max < min)) {
+                throw error("invalid repetition");
+            }
+
+            if(min > MAX_REPEAT || max > MAX_REPEAT) {
+                throw error("repetitions above " + MAX_REPEAT + " are not supported");
+            }
+
+            position = close + 1;
+            return new int[]{min, max};
+        }
+
+        private Node parseAtom() {
+            char character = pattern.charAt(position);
+
+            switch (character) {
+                case '(' -> {
+                    return parseGroup();
+                }
+                case '[' -> {
+                    return parseClass();
+                }
+                case '.' -> {
+                    position++;
+                    return new ClassNode(null);
+                }
+                case '^' -> {
+                    position++;
+                    return new Assertion(RegexProgram.ASSERT_BEGIN);
+                }
+                case '$' -> {
+                    position++;
+                    return new Assertion(RegexProgram.ASSERT_END);
+                }
+                case '\\' -> {
+                    return parseEscape();
+                }
+                case '*', '+', '?', '{' -> throw error("nothing to repeat");
+                default -> {
+                    position++;
+                    return new Literal(character);
+                }
+            }
+        }
+
+        private Node parseGroup() {
+            position++;
+
+            if(pattern.startsWith("?:", position)) {
+                position += 2;
+            }
+            else if(pattern.startsWith("?<", position) && position + 2 < pattern.length() && Character.isLetter(pattern.charAt(position + 2))) {
+                // Named groups are treated as plain groups.
+                int close = pattern.indexOf('>', position);
+                if(close == -1) {
+                    throw error("unclosed group name");
+                }
+                position = close + 1;
+            }
+            else if(position < pattern.length() && pattern.charAt(position) == '?') {
+                throw error("lookarounds and inline flags are not supported");
+            }
+
+            Node node = parseAlternation();
+
+            if(position >= pattern.length() || pattern.charAt(position) != ')') {
+                throw error("unclosed group");
+            }
+
+            position++;
+            return node;
+        }
+
+        private Node parseEscape() {
+            if(position + 1 >= pattern.length()) {
+                throw error("trailing backslash");
+            }
+
+            char escaped = pattern.charAt(position + 1);
+            position += 2;
+
+            return switch (escaped) {
+                case 'b' -> new Assertion(RegexProgram.ASSERT_WORD_BOUNDARY);
+                case 'B' -> new Assertion(RegexProgram.ASSERT_NOT_WORD_BOUNDARY);
+                case 'd', 'D', 'w', 'W', 's', 'S' -> new ClassNode(new CharClass(shorthand(escaped), Character.isUpperCase(escaped)));
+                default -> new Literal(escapedLiteral(escaped));
+            };
+        }
+
+        private Node parseClass() {
+            position++;
+            boolean negated = false;
+
+            if(position < pattern.length() && pattern.charAt(position) == '^') {
+                negated = true;
+                position++;
+            }
+
+            StringBuilder ranges = new StringBuilder();
+            boolean first = true;
+
+            while(true) {
+                if(position >= pattern.length()) {
+                    throw error("unclosed character class");
+                }
+
+                char character = pattern.charAt(position);
+
+                if(character == ']' && !first) {
+                    position++;
+                    break;
+                }
+
+                if(character == '[' || pattern.startsWith("&&", position)) {
+                    throw error("nested character classes are not supported");
+                }
+
+                first = false;
+                char start;
+
+                if(character == '\\') {
+                    if(position + 1 >= pattern.length()) {
+                        throw error("trailing backslash");
+                    }
+
+                    char escaped = pattern.charAt(position + 1);
+                    position += 2;
+
+                    if("dwsDWS".indexOf(escaped) != -1) {
+                        if(Character.isUpperCase(escaped)) {
+                            throw error("negated shorthands inside classes are not supported");
+                        }
+
+                        ranges.append(shorthand(escaped));
+                        continue;
+                    }
+
+                    start = escapedLiteral(escaped);
+                }
+                else {
+                    start = character;
+                    position++;
+                }
+
+                // Ranges like a-z, unless the dash is the last character in the class.
+                if(position + 1 < pattern.length() && pattern.charAt(position) == '-' && pattern.charAt(position + 1) != ']') {
+                    position++;
+                    char end = pattern.charAt(position);
+
+                    if(end == '\\') {
+                        if(position + 1 >= pattern.length()) {
+                            throw error("trailing backslash");
+                        }
+                        end = escapedLiteral(pattern.charAt(position + 1));
+                        position += 2;
+                    }
+                    else if(end == '[') {
+                        throw error("nested character classes are not supported");
+                    }
+                    else {
+                        position++;
+                    }
+
+                    if(end < start) {
+                        throw error("invalid character range");
+                    }
+
+                    ranges.append(start).append(end);
+                }
+                else {
+                    ranges.append(start).append(start);
+                }
+            }
+
+            return new ClassNode(new CharClass(ranges.toString().toCharArray(), negated));
+        }
+
+        /**
+         * Get the ranges of a shorthand class like \d, ignoring whether it is negated.
+         */
+        private static char[] shorthand(char escaped) {
+            return switch (Character.toLowerCase(escaped)) {
+                case 'd' -> new char[]{'0', '9'};
+                case 'w' -> new char[]{'0', '9', 'A', 'Z', '_', '_', 'a', 'z'};
+                default -> new char[]{'\t', '\r', ' ', ' '};
+            };
+        }
+
+        private char escapedLiteral(char escaped) {
+            return switch (escaped) {
+                case 't' -> '\t';
+                case 'n' -> '\n';
+                case 'r' -> '\r';
+                case 'f' -> '\f';
+                default -> {
+                    // Escaped symbols are literals, escaped letters and digits have special meanings.
+                    if(Character.isLetterOrDigit(escaped)) {
+                        throw error("'\\" + escaped + "' is not supported");
+                    }
+
+                    yield escaped;
+                }
+            };
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at index " + position);
+        }
+    }
+}
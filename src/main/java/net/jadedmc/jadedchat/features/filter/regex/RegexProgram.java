@@ -0,0 +1,509 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.features.filter.regex;
+
+import java.util.*;
+
+/**
+ * A compiled set of filter rules, matched in linear time.
+ * Runs every rule at once as a Thompson NFA, so no input can make matching backtrack.
+ * Created with RegexCompiler.
+ */
+public class RegexProgram {
+    /**
+     * Returned by find() when the time budget runs out.
+     */
+    public static final int TIMED_OUT = -2;
+
+    // Instruction types.
+    static final int CHAR = 0;
+    static final int CHAR_FOLD = 1;
+    static final int CLASS = 2;
+    static final int CLASS_FOLD = 3;
+    static final int ANY = 4;
+    static final int SPLIT = 5;
+    static final int JUMP = 6;
+    static final int MATCH = 7;
+    static final int ASSERT = 8;
+
+    // Assertion types.
+    static final int ASSERT_BEGIN = 0;
+    static final int ASSERT_END = 1;
+    static final int ASSERT_WORD_BOUNDARY = 2;
+    static final int ASSERT_NOT_WORD_BOUNDARY = 3;
+
+    private final int[] ops;
+    private final int[] x;
+    private final int[] y;
+    private final CharClass[] classes;
+    private final int[] startStates;
+    private final int[][] asciiStarts;
+    private final int[] dynamicStarts;
+    private final ThreadLocal<Scratch> scratch;
+
+    /**
+     * Creates the program.
+     * @param ops Instruction types.
+     * @param x First argument of each instruction.
+     * @param y Second argument of each instruction.
+     * @param classes Character classes used by the instructions.
+     */
+    RegexProgram(int[] ops, int[] x, int[] y, CharClass[] classes) {
+        this.ops = ops;
+        this.x = x;
+        this.y = y;
+        this.classes = classes;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(ops.length));
+
+        // Works out where a new attempt starts once, instead of following the branch to every rule at every position.
+        // States that read a character are sorted by the ASCII characters they accept, so each position only adds the rules that can continue.
+        // Assertions and matches depend on the position, so they are still followed for every new attempt.
+        List<Integer> consumers = new ArrayList<>();
+        List<Integer> dynamic = new ArrayList<>();
+        boolean[] visited = new boolean[ops.length];
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(0);
+
+        while(!stack.isEmpty()) {
+            int pc = stack.pop();
+
+            if(visited[pc]) {
+                continue;
+            }
+            visited[pc] = true;
+
+            switch (ops[pc]) {
+                case JUMP -> stack.push(x[pc]);
+                case SPLIT -> {
+                    // Pushed in reverse, so the first branch is followed first.
+                    stack.push(y[pc]);
+                    stack.push(x[pc]);
+                }
+                case ASSERT, MATCH -> dynamic.add(pc);
+                default -> consumers.add(pc);
+            }
+        }
+
+        this.startStates = consumers.stream().mapToInt(Integer::intValue).toArray();
+        this.dynamicStarts = dynamic.stream().mapToInt(Integer::intValue).toArray();
+        this.asciiStarts = new int[128][];
+        for(char character = 0; character < 128; character++) {
+            final char accepted = character;
+            asciiStarts[character] = Arrays.stream(startStates).filter(pc -> matches(pc, accepted)).toArray();
+        }
+    }
+
+    /**
+     * Searches text for any of the rules.
+     * @param text Text to search.
+     * @param deadline System.nanoTime() after which the search gives up.
+     * @return Index of the first rule to match, -1 if none match, or TIMED_OUT.
+     */
+    public int find(String text, long deadline) {
+        return find(text, deadline, null);
+    }
+
+    /**
+     * Searches text for any of the rules, and finds where the match is.
+     * @param text Text to search.
+     * @param deadline System.nanoTime() after which the search gives up.
+     * @param span Array the start and end of the match are stored in, or null.
+     * @return Index of the first rule to match, -1 if none match, or TIMED_OUT.
+     */
+    public int find(String text, long deadline, int[] span) {
+        // The state lists are reused between searches on the same thread, so chat does not create garbage for every message.
+        Scratch scratch = this.scratch.get();
+        int[] current = scratch.current;
+        int[] next = scratch.next;
+        int[] currentStarts = scratch.currentStarts;
+        int[] nextStarts = scratch.nextStarts;
+        int[] marks = scratch.marks;
+        int[] stack = scratch.stack;
+        int currentSize = 0;
+        int nextSize;
+
+        // Marks from earlier searches are told apart by their generation, so they only need clearing when it would overflow.
+        if(scratch.generation > Integer.MAX_VALUE - text.length() - 2) {
+            Arrays.fill(marks, 0);
+            scratch.generation = 0;
+        }
+
+        for(int position = 0; position <= text.length(); position++) {
+            // Checking the clock is slow, so it is only done every so often.
+            if((position & 31) == 31 && System.nanoTime() > deadline) {
+                return TIMED_OUT;
+            }
+
+            // Follows empty transitions from the states reached so far, and starts a new attempt at this position.
+            int generation = ++scratch.generation;
+            nextSize = 0;
+            // States added together share where their attempt started.
+            for(int i = 0; i < currentSize; i++) {
+                int added = nextSize;
+                nextSize = addState(next, nextSize, current[i], text, position, marks, generation, stack);
+                Arrays.fill(nextStarts, added, nextSize, currentStarts[i]);
+            }
+            int added = nextSize;
+            if(position < text.length()) {
+                char upcoming = text.charAt(position);
+
+                for(int pc : upcoming < 128 ? asciiStarts[upcoming] : startStates) {
+                    if(marks[pc] != generation) {
+                        marks[pc] = generation;
+                        next[nextSize++] = pc;
+                    }
+                }
+            }
+            for(int pc : dynamicStarts) {
+                nextSize = addState(next, nextSize, pc, text, position, marks, generation, stack);
+            }
+            Arrays.fill(nextStarts, added, nextSize, position);
+
+            // Any state at a match means a rule matched.
+            for(int i = 0; i < nextSize; i++) {
+                if(ops[next[i]] == MATCH) {
+                    if(span != null) {
+                        span[0] = nextStarts[i];
+                        span[1] = position;
+                    }
+
+                    return x[next[i]];
+                }
+            }
+
+            if(position == text.length()) {
+                break;
+            }
+
+            // Steps every state over the next character.
+            char character = text.charAt(position);
+            currentSize = 0;
+            for(int i = 0; i < nextSize; i++) {
+                int pc = next[i];
+
+                if(matches(pc, character)) {
+                    currentStarts[currentSize] = nextStarts[i];
+                    current[currentSize++] = pc + 1;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Lists every n-gram that can appear in text matched by the program.
+     * Any match contains at least one of them, which lets messages without any be skipped.
+     * @param n Length of each n-gram.
+     * @param limit Most n-grams to list.
+     * @return All possible n-grams, or null if there are too many or a rule can match less than n characters.
+     */
+    public Set<String> ngrams(int n, int limit) {
+        if(minLength() < n) {
+            return null;
+        }
+
+        Set<String> ngrams = new HashSet<>();
+        int[] budget = {limit * 16};
+
+        for(int pc = 0; pc < ops.length; pc++) {
+            if(isCharacter(pc) && !collectNgrams(pc, n, new StringBuilder(), ngrams, limit, budget)) {
+                return null;
+            }
+        }
+
+        return ngrams;
+    }
+
+    /**
+     * Get the number of instructions in the program.
+     * @return Program size.
+     */
+    public int size() {
+        return ops.length;
+    }
+
+    /**
+     * Finds the fewest characters any rule can match.
+     * @return Shortest match length.
+     */
+    private int minLength() {
+        int[] distance = new int[ops.length + 1];
+        Arrays.fill(distance, Integer.MAX_VALUE);
+        Deque<Integer> queue = new ArrayDeque<>();
+        distance[0] = 0;
+        queue.add(0);
+
+        // Breadth first, where reading a character costs one and everything else is free.
+        while(!queue.isEmpty()) {
+            int pc = queue.poll();
+
+            if(ops[pc] == MATCH) {
+                continue;
+            }
+
+            if(isCharacter(pc)) {
+                relax(pc + 1, distance[pc] + 1, distance, queue, false);
+            }
+            else if(ops[pc] == SPLIT) {
+                relax(x[pc], distance[pc], distance, queue, true);
+                relax(y[pc], distance[pc], distance, queue, true);
+            }
+            else if(ops[pc] == JUMP) {
+                relax(x[pc], distance[pc], distance, queue, true);
+            }
+            else {
+                relax(pc + 1, distance[pc], distance, queue, true);
+            }
+        }
+
+        int min = Integer.MAX_VALUE;
+        for(int pc = 0; pc < ops.length; pc++) {
+            if(ops[pc] == MATCH) {
+                min = Math.min(min, distance[pc]);
+            }
+        }
+
+        return min;
+    }
+
+    private void relax(int pc, int distance, int[] distances, Deque<Integer> queue, boolean free) {
+        if(pc < ops.length && distance < distances[pc]) {
+            distances[pc] = distance;
+
+            if(free) {
+                queue.addFirst(pc);
+            }
+            else {
+                queue.addLast(pc);
+            }
+        }
+    }
+
+    /**
+     * Adds every n-gram that starts with a character instruction.
+     * @return False if there are too many n-grams to list.
+     */
+    private boolean collectNgrams(int pc, int remaining, StringBuilder prefix, Set<String> ngrams, int limit, int[] budget) {
+        char[] characters = characters(pc);
+        if(characters == null || --budget[0] < 0) {
+            return false;
+        }
+
+        for(char character : characters) {
+            prefix.append(character);
+
+            if(remaining == 1) {
+                ngrams.add(prefix.toString());
+
+                if(ngrams.size() > limit) {
+                    return false;
+                }
+            }
+            else {
+                for(int next : nextCharacters(pc + 1)) {
+                    if(!collectNgrams(next, remaining - 1, prefix, ngrams, limit, budget)) {
+                        return false;
+                    }
+                }
+            }
+
+            prefix.setLength(prefix.length() - 1);
+        }
+
+        return true;
+    }
+
+    /**
+     * Finds the character instructions reachable from a state without reading a character.
+     * Assertions are assumed to hold, which can only add extra n-grams.
+     */
+    private Set<Integer> nextCharacters(int start) {
+        Set<Integer> found = new HashSet<>();
+        Set<Integer> visited = new HashSet<>();
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(start);
+
+        while(!stack.isEmpty()) {
+            int pc = stack.pop();
+
+            if(pc >= ops.length || !visited.add(pc)) {
+                continue;
+            }
+
+            switch (ops[pc]) {
+                case SPLIT -> {
+                    stack.push(x[pc]);
+                    stack.push(y[pc]);
+                }
+                case JUMP -> stack.push(x[pc]);
+                case ASSERT -> stack.push(pc + 1);
+                case MATCH -> {}
+                default -> found.add(pc);
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Lists the characters a character instruction accepts.
+     * @return Accepted characters, or null if there are too many.
+     */
+    private char[] characters(int pc) {
+        return switch (ops[pc]) {
+            case CHAR -> new char[]{(char) x[pc]};
+            case CHAR_FOLD -> new char[]{(char) x[pc], Character.toUpperCase((char) x[pc])};
+            case CLASS -> classes[x[pc]].characters(64);
+            case CLASS_FOLD -> {
+                char[] characters = classes[x[pc]].characters(64);
+                if(characters == null) {
+                    yield null;
+                }
+
+                char[] folded = Arrays.copyOf(characters, characters.length * 2);
+                for(int i = 0; i < characters.length; i++) {
+                    folded[characters.length + i] = Character.isUpperCase(characters[i]) ? Character.toLowerCase(characters[i]) : Character.toUpperCase(characters[i]);
+                }
+                yield folded;
+            }
+            default -> null;
+        };
+    }
+
+    /**
+     * Checks if an instruction reads a character.
+     */
+    private boolean isCharacter(int pc) {
+        return ops[pc] == CHAR || ops[pc] == CHAR_FOLD || ops[pc] == CLASS || ops[pc] == CLASS_FOLD || ops[pc] == ANY;
+    }
+
+    /**
+     * Adds a state, and every state reachable from it without reading a character.
+     * @return New size of the state list.
+     */
+    private int addState(int[] list, int listSize, int start, String text, int position, int[] marks, int generation, int[] stack) {
+        int stackSize = 0;
+        stack[stackSize++] = start;
+
+        while(stackSize > 0) {
+            int pc = stack[--stackSize];
+
+            if(marks[pc] == generation) {
+                continue;
+            }
+            marks[pc] = generation;
+
+            switch (ops[pc]) {
+                case JUMP -> stack[stackSize++] = x[pc];
+                case SPLIT -> {
+                    // Pushed in reverse, so the first branch is followed first.
+                    stack[stackSize++] = y[pc];
+                    stack[stackSize++] = x[pc];
+                }
+                case ASSERT -> {
+                    if(holds(x[pc], text, position)) {
+                        stack[stackSize++] = pc + 1;
+                    }
+                }
+                default -> list[listSize++] = pc;
+            }
+        }
+
+        return listSize;
+    }
+
+    /**
+     * Checks if a character instruction accepts a character.
+     * @param pc Instruction to check.
+     * @param character Character to check.
+     * @return Whether it is accepted.
+     */
+    private boolean matches(int pc, char character) {
+        return switch (ops[pc]) {
+            case CHAR -> x[pc] == character;
+            case CHAR_FOLD -> x[pc] == Character.toLowerCase(character) || x[pc] == Character.toLowerCase(Character.toUpperCase(character));
+            case CLASS -> classes[x[pc]].matches(character);
+            case CLASS_FOLD -> classes[x[pc]].matches(character) || classes[x[pc]].matches(Character.toLowerCase(character)) || classes[x[pc]].matches(Character.toUpperCase(character));
+            case ANY -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Checks if an assertion holds at a position.
+     * @param assertion Assertion type.
+     * @param text Text being searched.
+     * @param position Position in the text.
+     * @return Whether the assertion holds.
+     */
+    private static boolean holds(int assertion, String text, int position) {
+        return switch (assertion) {
+            case ASSERT_BEGIN -> position == 0;
+            case ASSERT_END -> position == text.length();
+            case ASSERT_WORD_BOUNDARY -> isWordBoundary(text, position);
+            case ASSERT_NOT_WORD_BOUNDARY -> !isWordBoundary(text, position);
+            default -> false;
+        };
+    }
+
+    /**
+     * Checks if a position is between a word character and a non-word character.
+     * @param text Text being searched.
+     * @param position Position in the text.
+     * @return Whether it is a word boundary.
+     */
+    private static boolean isWordBoundary(String text, int position) {
+        boolean before = position > 0 && CharClass.isWordCharacter(text.charAt(position - 1));
+        boolean after = position < text.length() && CharClass.isWordCharacter(text.charAt(position));
+        return before != after;
+    }
+
+    /**
+     * Working memory for a search, sized to the program.
+     */
+    private static class Scratch {
+        private final int[] current;
+        private final int[] next;
+        private final int[] currentStarts;
+        private final int[] nextStarts;
+        private final int[] marks;
+        private final int[] stack;
+        private int generation;
+
+        /**
+         * Creates the working memory.
+         * @param size Number of instructions in the program.
+         */
+        private Scratch(int size) {
+            current = new int[size];
+            next = new int[size];
+            currentStarts = new int[size];
+            nextStarts = new int[size];
+            marks = new int[size];
+            stack = new int[size * 2 + 1];
+        }
+    }
+}
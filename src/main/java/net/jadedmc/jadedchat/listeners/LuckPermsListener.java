@@ -0,0 +1,83 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.listeners;
+
+import net.jadedmc.jadedchat.JadedChatPlugin;
+import net.luckperms.api.LuckPermsProvider;
+import net.luckperms.api.event.group.GroupDataRecalculateEvent;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
+import org.bukkit.entity.Player;
+
+/**
+ * Listens to LuckPerms for permission changes.
+ * LuckPerms events do not go through Bukkit, so they are subscribed to directly.
+ */
+public class LuckPermsListener {
+    private final JadedChatPlugin plugin;
+
+    /**
+     * Creates the listener and subscribes it to LuckPerms.
+     * @param plugin Instance of the plugin.
+     */
+    public LuckPermsListener(JadedChatPlugin plugin) {
+        this.plugin = plugin;
+
+        LuckPermsProvider.get().getEventBus().subscribe(plugin, UserDataRecalculateEvent.class, this::onUserDataRecalculate);
+        LuckPermsProvider.get().getEventBus().subscribe(plugin, GroupDataRecalculateEvent.class, this::onGroupDataRecalculate);
+    }
+
+    /**
+     * Runs when a user's permissions are recalculated.
+     * LuckPerms can call this off the main thread, so the update is scheduled.
+     * @param event UserDataRecalculateEvent.
+     */
+    private void onUserDataRecalculate(UserDataRecalculateEvent event) {
+        plugin.getServer().getScheduler().runTask(plugin, () -> {
+            Player player = plugin.getServer().getPlayer(event.getUser().getUniqueId());
+
+            // Only online players are stored.
+            if(player == null) {
+                return;
+            }
+
+            plugin.channelManager().updatePermissions(player);
+            plugin.emoteManager().updatePermissions(player);
+            plugin.filterManager().updatePermissions(player);
+        });
+    }
+
+    /**
+     * Runs when a group's permissions are recalculated.
+     * Any online player could be in the group, so everyone is updated.
+     * @param event GroupDataRecalculateEvent.
+     */
+    private void onGroupDataRecalculate(GroupDataRecalculateEvent event) {
+        plugin.getServer().getScheduler().runTask(plugin, () -> {
+            plugin.channelManager().updatePermissions();
+            plugin.emoteManager().updatePermissions();
+            plugin.filterManager().updatePermissions();
+        });
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.listeners;
+
+import net.jadedmc.jadedchat.JadedChatPlugin;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Re-checks the permissions of online players when LuckPerms is not installed to say when they change.
+ * Each round is spread out over many ticks, so only a few players are checked at a time.
+ */
+public class PermissionRefresher implements Runnable {
+    private final JadedChatPlugin plugin;
+    private final int roundTicks;
+    private final Queue<Player> queue = new ArrayDeque<>();
+    private int perTick = 1;
+
+    /**
+     * Creates the refresher. Meant to be run every tick.
+     * @param plugin Instance of the plugin.
+     * @param roundTicks How many ticks it should take to check every online player.
+     */
+    public PermissionRefresher(JadedChatPlugin plugin, int roundTicks) {
+        this.plugin = plugin;
+        this.roundTicks = Math.max(1, roundTicks);
+    }
+
+    /**
+     * Checks the next few players in the round.
+     */
+    @Override
+    public void run() {
+        // Starts a new round once everyone has been checked.
+        if(queue.isEmpty()) {
+            queue.addAll(plugin.getServer().getOnlinePlayers());
+            perTick = Math.max(1, (queue.size() + roundTicks - 1) / roundTicks);
+        }
+
+        for(int i = 0; i < perTick && !queue.isEmpty(); i++) {
+            Player player = queue.poll();
+
+            // Skips players who logged off during the round.
+            if(!player.isOnline()) {
+                continue;
+            }
+
+            plugin.channelManager().updatePermissions(player);
+            plugin.emoteManager().updatePermissions(player);
+            plugin.filterManager().updatePermissions(player);
+        }
+    }
+}
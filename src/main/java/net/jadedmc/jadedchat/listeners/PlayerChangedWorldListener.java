@@ -0,0 +1,60 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.listeners;
+
+import net.jadedmc.jadedchat.JadedChatPlugin;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+
+public class PlayerChangedWorldListener implements Listener {
+    private final JadedChatPlugin plugin;
+
+    /**
+     * To be able to access the configuration files, we need to pass an instance of the plugin to our listener.
+     * @param plugin Instance of the plugin.
+     */
+    public PlayerChangedWorldListener(JadedChatPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Runs when the event is called.
+     * Runs at monitor priority, once other plugins are done with it.
+     * @param event PlayerChangedWorldEvent.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        // Keeps the location grid and world players up to date for ranged and per-world channels.
+        plugin.channelManager().playerGrid().update(event.getPlayer(), event.getPlayer().getLocation());
+        plugin.channelManager().updateWorld(event.getPlayer(), event.getFrom());
+
+        // Permissions can be set per world, so they are checked again.
+        plugin.channelManager().updatePermissions(event.getPlayer());
+        plugin.emoteManager().updatePermissions(event.getPlayer());
+        plugin.filterManager().updatePermissions(event.getPlayer());
+    }
+}
@@ -57,6 +57,14 @@ public class PlayerJoinListener implements Listener {
      */
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onJoin(PlayerJoinEvent event) {
+        // Adds the player to the location grid and the channels they can use.
+        plugin.channelManager().addPlayer(event.getPlayer());
+
+        // Stores the emotes the player can use, so chat does not need to check permissions.
+        plugin.emoteManager().updatePermissions(event.getPlayer());
+
+        // Stores if the player can see filtered messages.
+        plugin.filterManager().updatePermissions(event.getPlayer());
 
         // If this is the player's first time playing, displays the first join message if enabled.
         if(!event.getPlayer().hasPlayedBefore() && plugin.getConfigManager().getConfig().isSet("FirstJoinMessage.enabled") && plugin.getConfigManager().getConfig().getBoolean("FirstJoinMessage.enabled")) {
@@ -58,6 +58,7 @@ public class PlayerQuitListener implements Listener {
     public void onQuit(PlayerQuitEvent event) {
         // Prevent memory leaks by removing players from lists when they are no longer needed.
         plugin.channelManager().removePlayer(event.getPlayer());
+        plugin.emoteManager().removePlayer(event.getPlayer());
         plugin.messageManager().removePlayer(event.getPlayer());
         plugin.filterManager().removePlayer(event.getPlayer());
 
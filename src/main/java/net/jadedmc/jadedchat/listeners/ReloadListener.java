@@ -52,7 +52,10 @@ public class ReloadListener implements Listener {
     @EventHandler
     public void onReload(@NotNull final ReloadEvent event) {
         plugin.getConfigManager().reloadConfig();
-        plugin.channelManager().loadChannels();
         plugin.emoteManager().registerEmotes();
+        plugin.channelManager().loadChannels();
+        plugin.filterManager().loadFilters();
+        plugin.filterManager().updatePermissions();
+        plugin.channelManager().chatExecutor().loadSettings();
     }
 }
\ No newline at end of file
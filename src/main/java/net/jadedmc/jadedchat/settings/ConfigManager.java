@@ -74,6 +74,10 @@ public class ConfigManager {
             plugin.saveResource("filter.yml", false);
         }
         filter = YamlConfiguration.loadConfiguration(filterFile);
+
+        if(!new File(plugin.getDataFolder(), "blocked-words.txt").exists()) {
+            plugin.saveResource("blocked-words.txt", false);
+        }
     }
 
     /**
@@ -0,0 +1,168 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.utils;
+
+import java.util.*;
+
+/**
+ * An Aho-Corasick automaton, which finds every occurrence of a set of strings in a single pass over some text.
+ * Built once, then stored as sorted arrays so it can be shared between threads.
+ */
+public class AhoCorasick {
+    private final int[] lengths;
+    private final char[][] keys;
+    private final int[][] targets;
+    private final int[] fail;
+    private final int[][] outputs;
+
+    /**
+     * Builds the automaton.
+     * @param patterns Strings to find. Null and empty strings are kept in place, but never found.
+     */
+    public AhoCorasick(List<String> patterns) {
+        lengths = new int[patterns.size()];
+
+        // Builds a trie out of every pattern.
+        List<Map<Character, Integer>> transitions = new ArrayList<>();
+        List<List<Integer>> nodeOutputs = new ArrayList<>();
+        transitions.add(new HashMap<>());
+        nodeOutputs.add(new ArrayList<>());
+
+        for(int index = 0; index < patterns.size(); index++) {
+            String pattern = patterns.get(index);
+
+            if(pattern == null || pattern.isEmpty()) {
+                continue;
+            }
+
+            int node = 0;
+            for(char character : pattern.toCharArray()) {
+                Integer next = transitions.get(node).get(character);
+
+                if(next == null) {
+                    next = transitions.size();
+                    transitions.add(new HashMap<>());
+                    nodeOutputs.add(new ArrayList<>());
+                    transitions.get(node).put(character, next);
+                }
+
+                node = next;
+            }
+
+            lengths[index] = pattern.length();
+            nodeOutputs.get(node).add(index);
+        }
+
+        // Links each node to the longest suffix that is also in the trie, breadth first.
+        fail = new int[transitions.size()];
+        Deque<Integer> queue = new ArrayDeque<>(transitions.get(0).values());
+
+        while(!queue.isEmpty()) {
+            int node = queue.poll();
+
+            for(Map.Entry<Character, Integer> entry : transitions.get(node).entrySet()) {
+                int child = entry.getValue();
+                int state = fail[node];
+
+                while(state != 0 && !transitions.get(state).containsKey(entry.getKey())) {
+                    state = fail[state];
+                }
+
+                Integer suffix = transitions.get(state).get(entry.getKey());
+                fail[child] = (suffix != null && suffix != child) ? suffix : 0;
+
+                // Patterns ending at the suffix also end here. They are shorter, so the longest pattern stays first.
+                nodeOutputs.get(child).addAll(nodeOutputs.get(fail[child]));
+                queue.add(child);
+            }
+        }
+
+        // Stores the automaton as sorted arrays, which are faster to search than maps.
+        keys = new char[transitions.size()][];
+        targets = new int[transitions.size()][];
+        outputs = new int[transitions.size()][];
+
+        for(int node = 0; node < transitions.size(); node++) {
+            List<Character> characters = new ArrayList<>(transitions.get(node).keySet());
+            Collections.sort(characters);
+
+            keys[node] = new char[characters.size()];
+            targets[node] = new int[characters.size()];
+            for(int i = 0; i < characters.size(); i++) {
+                keys[node][i] = characters.get(i);
+                targets[node][i] = transitions.get(node).get(characters.get(i));
+            }
+
+            outputs[node] = nodeOutputs.get(node).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * Moves to the next state after reading a character, following failure links when needed.
+     * Searches start at state 0.
+     * @param state Current state.
+     * @param character Next character of the text.
+     * @return Resulting state.
+     */
+    public int next(int state, char character) {
+        int next = transition(state, character);
+
+        while(next == -1 && state != 0) {
+            state = fail[state];
+            next = transition(state, character);
+        }
+
+        return next == -1 ? 0 : next;
+    }
+
+    /**
+     * Get the patterns that end at a state, longest first.
+     * @param state State to check.
+     * @return Indexes of the patterns, in the order they were given.
+     */
+    public int[] outputs(int state) {
+        return outputs[state];
+    }
+
+    /**
+     * Get the length of a pattern.
+     * @param pattern Index of the pattern.
+     * @return Length of the pattern.
+     */
+    public int length(int pattern) {
+        return lengths[pattern];
+    }
+
+    /**
+     * Follows a transition of the trie, without failure links.
+     * @param state Current state.
+     * @param character Next character.
+     * @return Resulting state, or -1 if there is no transition.
+     */
+    private int transition(int state, char character) {
+        int index = Arrays.binarySearch(keys[state], character);
+        return index < 0 ? -1 : targets[state][index];
+    }
+}
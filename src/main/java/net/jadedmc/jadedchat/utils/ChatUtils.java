@@ -30,22 +30,53 @@ import net.kyori.adventure.platform.bukkit.BukkitAudiences;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import net.kyori.adventure.text.serializer.bungeecord.BungeeComponentSerializer;
-import net.md_5.bungee.api.ChatColor;
 import net.md_5.bungee.api.chat.BaseComponent;
-import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Some methods to make sending chat messages easier.
  */
 public class ChatUtils {
     private final static int CENTER_PX = 154;
+    private final static TimingStat broadcastTimings = new TimingStat();
+    private final static TimingStat sendTimings = new TimingStat();
+    private final static LongAdder broadcastViewers = new LongAdder();
     private static BukkitAudiences adventure;
+    private static BungeeComponentSerializer bungeeSerializer;
+    private static boolean hexColors = false;
+
+    // Recently centered messages, so common lines do not need to be measured again.
+    private final static Map<String, String> centeredCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > 256;
+        }
+    });
+
+    // MiniMessage tags for each legacy code, indexed by the code character.
+    private final static String[] LEGACY_TAGS = new String[128];
+    static {
+        String codes = "0123456789abcdefklmnor";
+        String[] tags = {
+                "<reset><black>", "<reset><dark_blue>", "<reset><dark_green>", "<reset><dark_aqua>",
+                "<reset><dark_red>", "<reset><dark_purple>", "<reset><gold>", "<reset><gray>",
+                "<reset><dark_gray>", "<reset><blue>", "<reset><green>", "<reset><aqua>",
+                "<reset><red>", "<reset><light_purple>", "<reset><yellow>", "<reset><white>",
+                "<obfuscated>", "<bold>", "<strikethrough>", "<u>", "<i>", "<reset>"
+        };
+
+        for(int i = 0; i < codes.length(); i++) {
+            LEGACY_TAGS[codes.charAt(i)] = tags[i];
+        }
+    }
 
     /**
      * Creates an instance of adventure using an instance of the plugin.
@@ -54,6 +85,60 @@ public class ChatUtils {
      */
     public static void initialize(@NotNull final JadedChatPlugin plugin) {
         adventure = BukkitAudiences.create(plugin);
+
+        // Servers older than 1.16 do not support hex colors in chat components.
+        String version = plugin.getServer().getBukkitVersion().split("-")[0];
+        int subVersion = Integer.parseInt(version.split("\\.")[1]);
+        hexColors = subVersion >= 16;
+        bungeeSerializer = hexColors ? BungeeComponentSerializer.get() : BungeeComponentSerializer.legacy();
+    }
+
+    /**
+     * Sends a message to a group of players.
+     * The message is only serialized once, and the result is sent to every player.
+     * @param players Players to send the message to.
+     * @param message The message being sent.
+     */
+    public static void broadcast(Collection<? extends Player> players, Component message) {
+        if(players.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        BaseComponent[] serialized = bungeeSerializer.serialize(message);
+        broadcastTimings.record(System.nanoTime() - start);
+        broadcastViewers.add(players.size());
+
+        // Sending is timed on its own, since its cost grows with the number of viewers.
+        start = System.nanoTime();
+        for(Player player : players) {
+            player.spigot().sendMessage(serialized);
+        }
+        sendTimings.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Get how long it takes to serialize broadcast messages.
+     * @return Broadcast serialization timings.
+     */
+    public static TimingStat broadcastTimings() {
+        return broadcastTimings;
+    }
+
+    /**
+     * Get how long it takes to send serialized broadcast messages to their viewers.
+     * @return Broadcast sending timings.
+     */
+    public static TimingStat sendTimings() {
+        return sendTimings;
+    }
+
+    /**
+     * Get how many players broadcast messages have been sent to.
+     * @return Total broadcast viewers.
+     */
+    public static long broadcastViewers() {
+        return broadcastViewers.sum();
     }
 
     /**
@@ -69,6 +154,7 @@ public class ChatUtils {
 
     /**
      * Attempts to center a message in chat.
+     * Centered messages are cached, since they are usually the same lines sent over and over.
      * @param message Message to center.
      * @return Centered message.
      */
@@ -78,28 +164,12 @@ public class ChatUtils {
             return message;
         }
 
-        String translated = ChatColor.translateAlternateColorCodes('&', MiniMessage.miniMessage().stripTags(toLegacy(message)));
-
-        int messagePxSize = 0;
-        boolean previousCode = false;
-        boolean isBold = false;
-
-        for(char c : translated.toCharArray()) {
-            if(c == '§') {
-                previousCode = true;
-            }
-            else if(previousCode) {
-                previousCode = false;
-                isBold = c == 'l' || c == 'L';
-            }
-            else {
-                DefaultFontInfo dFI = DefaultFontInfo.getDefaultFontInfo(c);
-                messagePxSize += isBold ? dFI.getBoldLength() : dFI.getLength();
-                messagePxSize++;
-            }
+        String centered = centeredCache.get(message);
+        if(centered != null) {
+            return centered;
         }
 
-        int halvedMessageSize = messagePxSize / 2;
+        int halvedMessageSize = pixelWidth(message) / 2;
         int toCompensate = CENTER_PX - halvedMessageSize;
         int spaceLength = DefaultFontInfo.SPACE.getLength() + 1;
         int compensated = 0;
@@ -109,7 +179,130 @@ public class ChatUtils {
             compensated += spaceLength;
         }
 
-        return sb + message;
+        centered = sb + message;
+        centeredCache.put(message, centered);
+        return centered;
+    }
+
+    /**
+     * Measures how wide a MiniMessage string is in chat, in pixels.
+     * Tags and legacy codes take up no space, and bold text is one pixel wider per character.
+     * @param message MiniMessage string to measure.
+     * @return Width of the message.
+     */
+    private static int pixelWidth(String message) {
+        int messagePxSize = 0;
+        boolean isBold = false;
+        int length = message.length();
+
+        for(int index = 0; index < length; index++) {
+            char c = message.charAt(index);
+
+            // Escaped characters are shown as they are.
+            if(c == '\\' && index + 1 < length && (message.charAt(index + 1) == '<' || message.charAt(index + 1) == '\\')) {
+                index++;
+                c = message.charAt(index);
+            }
+            else if(c == '<') {
+                int end = tagEnd(message, index);
+
+                if(end != -1) {
+                    isBold = isBold(message.substring(index + 1, end).toLowerCase(), isBold);
+                    index = end;
+                    continue;
+                }
+            }
+            else if((c == '&' || c == '§') && index + 1 < length) {
+                char code = message.charAt(index + 1);
+
+                // Hex colors reset the formatting, like any other color.
+                if(c == '&' && hexColors && isHexColor(message, index + 1)) {
+                    isBold = false;
+                    index += 7;
+                    continue;
+                }
+
+                // Colors and resets remove bold, while other formatting codes keep it.
+                if(code < LEGACY_TAGS.length && LEGACY_TAGS[code] != null) {
+                    isBold = code == 'l' || (isBold && "kmno".indexOf(code) != -1);
+                    index++;
+                    continue;
+                }
+            }
+
+            DefaultFontInfo dFI = DefaultFontInfo.getDefaultFontInfo(c);
+            messagePxSize += isBold ? dFI.getBoldLength() : dFI.getLength();
+            messagePxSize++;
+        }
+
+        return messagePxSize;
+    }
+
+    /**
+     * Finds the end of a MiniMessage tag.
+     * @param message Message the tag is in.
+     * @param start Index of the opening bracket.
+     * @return Index of the closing bracket, or -1 if it is not a tag.
+     */
+    private static int tagEnd(String message, int start) {
+        int index = start + 1;
+
+        // Closing and negated tags.
+        if(index < message.length() && (message.charAt(index) == '/' || message.charAt(index) == '!')) {
+            index++;
+        }
+
+        // Tags need a name.
+        if(index >= message.length() || !isTagCharacter(message.charAt(index))) {
+            return -1;
+        }
+
+        char quote = 0;
+        for(; index < message.length(); index++) {
+            char c = message.charAt(index);
+
+            if(quote != 0) {
+                if(c == quote) {
+                    quote = 0;
+                }
+            }
+            else if(c == '\'' || c == '"') {
+                quote = c;
+            }
+            else if(c == '>') {
+                return index;
+            }
+            else if(c == '<' || c == '\n') {
+                return -1;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Checks if a character can be used in a tag name.
+     * @param c Character to check.
+     * @return Whether it is valid.
+     */
+    private static boolean isTagCharacter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '-' || c == '#';
+    }
+
+    /**
+     * Gets whether text is bold after a tag.
+     * @param tag Contents of the tag, in lowercase.
+     * @param isBold Whether the text was bold before the tag.
+     * @return Whether the text is bold after the tag.
+     */
+    private static boolean isBold(String tag, boolean isBold) {
+        String name = tag.contains(":") ? tag.substring(0, tag.indexOf(':')) : tag;
+
+        return switch (name) {
+            case "bold", "b" -> !tag.endsWith(":false");
+            case "/bold", "/b", "!bold", "!b", "reset" -> false;
+            default -> isBold;
+        };
     }
 
     /**
@@ -155,47 +348,72 @@ public class ChatUtils {
         return translate(PlaceholderAPI.setPlaceholders(player, message));
     }
 
+    /**
+     * Converts legacy color codes into MiniMessage tags.
+     * Supports both & and § codes, and &#RRGGBB hex colors on 1.16+.
+     * @param message Message to convert.
+     * @return Message using MiniMessage tags.
+     */
     public static String replaceLegacy(String message) {
-        // Get the server version.
-        String version = Bukkit.getServer().getBukkitVersion().split("-")[0];
-        int subVersion = Integer.parseInt(version.split("\\.")[1]);
+        // Most messages have no legacy codes, so they can be returned as is.
+        if(message.indexOf('&') == -1 && message.indexOf('§') == -1) {
+            return message;
+        }
+
+        StringBuilder builder = new StringBuilder(message.length() + 16);
+        int length = message.length();
+
+        for(int index = 0; index < length; index++) {
+            char character = message.charAt(index);
+
+            if(character != '&' && character != '§') {
+                builder.append(character);
+                continue;
+            }
+
+            // Hex colors only use the & prefix.
+            if(character == '&' && hexColors && isHexColor(message, index + 1)) {
+                builder.append("<reset><color:").append(message, index + 1, index + 8).append(">");
+                index += 7;
+                continue;
+            }
+
+            char code = index + 1 < length ? message.charAt(index + 1) : 0;
+            String tag = code < LEGACY_TAGS.length ? LEGACY_TAGS[code] : null;
+
+            if(tag == null) {
+                builder.append('&');
+                continue;
+            }
+
+            builder.append(tag);
+            index++;
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Checks if a hex color, in the form #RRGGBB, starts at a given index.
+     * @param message Message to check.
+     * @param start Index of the #.
+     * @return Whether there is a hex color.
+     */
+    private static boolean isHexColor(String message, int start) {
+        if(start + 7 > message.length() || message.charAt(start) != '#') {
+            return false;
+        }
 
-        // If the version is 1.16 or greater, check for hex color codes.
-        if(subVersion >= 16) {
-            Pattern pattern = Pattern.compile("&#[a-fA-F0-9]{6}");
-            Matcher matcher = pattern.matcher(message);
+        for(int index = start + 1; index < start + 7; index++) {
+            char character = message.charAt(index);
+            boolean hex = (character >= '0' && character <= '9') || (character >= 'a' && character <= 'f') || (character >= 'A' && character <= 'F');
 
-            while (matcher.find()) {
-                String color = message.substring(matcher.start() + 1, matcher.end());
-                message = message.replace("&" + color, "<reset><color:" + color + ">");
-                matcher = pattern.matcher(message);
+            if(!hex) {
+                return false;
             }
         }
 
-        // Then replace legacy color codes.
-        return message.replace("§", "&")
-                .replace("&0", "<reset><black>")
-                .replace("&1", "<reset><dark_blue>")
-                .replace("&2", "<reset><dark_green>")
-                .replace("&3", "<reset><dark_aqua>")
-                .replace("&4", "<reset><dark_red>")
-                .replace("&5", "<reset><dark_purple>")
-                .replace("&6", "<reset><gold>")
-                .replace("&7", "<reset><gray>")
-                .replace("&8", "<reset><dark_gray>")
-                .replace("&9", "<reset><blue>")
-                .replace("&a", "<reset><green>")
-                .replace("&b", "<reset><aqua>")
-                .replace("&c", "<reset><red>")
-                .replace("&d", "<reset><light_purple>")
-                .replace("&e", "<reset><yellow>")
-                .replace("&f", "<reset><white>")
-                .replace("&k", "<obfuscated>")
-                .replace("&l", "<bold>")
-                .replace("&m", "<strikethrough>")
-                .replace("&n", "<u>")
-                .replace("&o", "<i>")
-                .replace("&r", "<reset>");
+        return true;
     }
 
     /**
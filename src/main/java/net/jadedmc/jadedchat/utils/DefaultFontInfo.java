@@ -102,6 +102,17 @@ public enum DefaultFontInfo {
     SPACE(' ', 3),
     DEFAULT('a', 4);
 
+    // Font info of each character, indexed by the character itself.
+    private static final DefaultFontInfo[] BY_CHARACTER = new DefaultFontInfo[128];
+    static {
+        for(DefaultFontInfo dFI : values()) {
+            // DEFAULT shares a character with 'a', so it is not indexed.
+            if(dFI != DEFAULT) {
+                BY_CHARACTER[dFI.character] = dFI;
+            }
+        }
+    }
+
     private final char character;
     private final int length;
 
@@ -125,9 +136,7 @@ public enum DefaultFontInfo {
     }
 
     public static DefaultFontInfo getDefaultFontInfo(char c) {
-        for (DefaultFontInfo dFI : DefaultFontInfo.values()) {
-            if (dFI.getCharacter() == c) return dFI;
-        }
+        if (c < BY_CHARACTER.length && BY_CHARACTER[c] != null) return BY_CHARACTER[c];
         return DefaultFontInfo.DEFAULT;
     }
 }
\ No newline at end of file
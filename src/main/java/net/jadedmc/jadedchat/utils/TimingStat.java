@@ -0,0 +1,93 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.utils;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps track of how many times something happened, and how long it took in total.
+ * Safe to update from multiple threads.
+ */
+public class TimingStat {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    /**
+     * Get how many times the stat was recorded.
+     * @return Number of recordings.
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Get the average time a recording took.
+     * @return Average time, in microseconds.
+     */
+    public double averageMicros() {
+        long count = count();
+
+        if(count == 0) {
+            return 0;
+        }
+
+        return nanos.sum() / 1000.0 / count;
+    }
+
+    /**
+     * Records a single occurrence.
+     * @param nanos How long it took, in nanoseconds.
+     */
+    public void record(long nanos) {
+        count.increment();
+        this.nanos.add(nanos);
+    }
+
+    /**
+     * Adds recordings made elsewhere, like ones saved before a restart.
+     * @param count Number of recordings.
+     * @param nanos Total time of the recordings, in nanoseconds.
+     */
+    public void add(long count, long nanos) {
+        this.count.add(count);
+        this.nanos.add(nanos);
+    }
+
+    /**
+     * Clears all recordings.
+     */
+    public void reset() {
+        count.reset();
+        nanos.reset();
+    }
+
+    /**
+     * Get the total time of all recordings.
+     * @return Total time, in nanoseconds.
+     */
+    public long totalNanos() {
+        return nanos.sum();
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.features.channels;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares finding the players in range through the player grid against measuring the distance to every online player.
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=PlayerGridBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlayerGridBenchmark {
+    @Param({"100", "400", "1000"})
+    public int players;
+
+    @Param({"32", "100"})
+    public int range;
+
+    private final List<Player> online = new ArrayList<>();
+    private final PlayerGrid grid = new PlayerGrid();
+    private Player sender;
+
+    @Setup
+    public void setup() {
+        World world = world(UUID.randomUUID());
+        Random random = new Random(42);
+
+        // Spreads players over a 2000x2000 area around spawn.
+        for(int i = 0; i < players; i++) {
+            Player player = player(new Location(world, random.nextDouble() * 2000 - 1000, 64, random.nextDouble() * 2000 - 1000));
+            online.add(player);
+            grid.update(player, player.getLocation());
+        }
+
+        sender = online.get(0);
+    }
+
+    @Benchmark
+    public Collection<Player> linearScan() {
+        // What ChatChannel.viewers used to do for ranged channels.
+        Collection<Player> inRange = new ArrayList<>();
+        for(Player player : online) {
+            if(player.getLocation().distance(sender.getLocation()) <= range) {
+                inRange.add(player);
+            }
+        }
+
+        return inRange;
+    }
+
+    @Benchmark
+    public Collection<Player> grid() {
+        return grid.nearby(sender.getLocation(), range);
+    }
+
+    /**
+     * Creates a world that only knows its id.
+     * @param uuid Id of the world.
+     * @return World.
+     */
+    private static World world(UUID uuid) {
+        return (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[] {World.class}, (proxy, method, args) -> switch(method.getName()) {
+            case "getUID" -> uuid;
+            case "getName" -> "world";
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    /**
+     * Creates a player standing still at a location.
+     * Like on a real server, every call to getLocation returns a new copy.
+     * @param location Where the player is.
+     * @return Player.
+     */
+    private static Player player(Location location) {
+        UUID uuid = UUID.randomUUID();
+
+        return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[] {Player.class}, (proxy, method, args) -> switch(method.getName()) {
+            case "getUniqueId" -> uuid;
+            case "getLocation" -> new Location(location.getWorld(), location.getX(), location.getY(), location.getZ());
+            case "getWorld" -> location.getWorld();
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
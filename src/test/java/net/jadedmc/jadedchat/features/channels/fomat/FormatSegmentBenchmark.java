@@ -0,0 +1,71 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.features.channels.fomat;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing a message section for every message against filling in a precompiled template.
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=FormatSegmentBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormatSegmentBenchmark {
+    @Param({"<white><message>", "<gray>> </gray><hover:show_text:'<gray>Click to reply'><click:suggest_command:'/r '><white><message></click></hover>"})
+    public String section;
+
+    private FormatSegment segment;
+    private Component message;
+
+    @Setup
+    public void setup() {
+        segment = new FormatSegment(section, null);
+        message = Component.text("hello there ").append(Component.text("everyone", NamedTextColor.AQUA));
+
+        if(!segment.isTemplate()) {
+            throw new IllegalStateException(section + " is not a template");
+        }
+    }
+
+    @Benchmark
+    public Component parseEachMessage() {
+        return MiniMessage.miniMessage().deserialize(section, Placeholder.component("message", message));
+    }
+
+    @Benchmark
+    public Component fillTemplate() {
+        return segment.fill(message);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.features.channels.fomat;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks compiled format segments render the same way as parsing the whole section for every message.
+ */
+public class FormatSegmentTest {
+    private static final String[] SECTIONS = {
+            "<message>",
+            "<white><message>",
+            "<gray>» </gray><white><message>",
+            "<white>Hi <message> there",
+            "<bold><message></bold> and <message>",
+            "<hover:show_text:'<gray>Said: <message>'><white><message></hover>",
+            "<click:suggest_command:'/msg '><gray><message></gray></click>",
+            "<rainbow>before</rainbow> <message> <italic>after",
+            "<white><message><reset> <gray>end",
+            "<gray>» </gray><hover:show_text:'<gray>Click to reply'><click:suggest_command:'/r '><white><message></click></hover>",
+    };
+
+    private static final Component[] MESSAGES = {
+            Component.text("hello"),
+            Component.empty(),
+            Component.text("red ", NamedTextColor.RED).append(Component.text("bold").decorate(TextDecoration.BOLD)),
+            MiniMessage.miniMessage().deserialize("<green>hi <click:run_command:'/spawn'>there</click>"),
+    };
+
+    @Test
+    public void templatesMatchFullParsing() {
+        for(String section : SECTIONS) {
+            FormatSegment segment = new FormatSegment(section, "lobby");
+            assertTrue(segment.isTemplate(), section);
+
+            for(Component message : MESSAGES) {
+                Component expected = MiniMessage.miniMessage().deserialize(section, Placeholder.component("message", message));
+                assertEquals(expected, segment.fill(message), section + " with " + message);
+            }
+        }
+    }
+
+    @Test
+    public void templatesAreReused() {
+        FormatSegment segment = new FormatSegment("<white><message>", null);
+
+        // The second message must not be affected by the first.
+        assertEquals(MiniMessage.miniMessage().deserialize("<white>one"), segment.fill(Component.text("one")));
+        assertEquals(MiniMessage.miniMessage().deserialize("<white>two"), segment.fill(Component.text("two")));
+    }
+
+    @Test
+    public void dynamicSectionsAreNotTemplates() {
+        assertFalse(new FormatSegment("<white>%player_name%: <message>", null).isTemplate());
+        assertFalse(new FormatSegment("<message> <hover:show_text:'<message_raw>'>raw</hover>", null).isTemplate());
+        assertFalse(new FormatSegment("<gray>[Staff]", null).isTemplate());
+
+        // Gradients color each character of the message, so they have to be parsed with it.
+        assertFalse(new FormatSegment("<gradient:red:blue><message></gradient>", null).isTemplate());
+        assertFalse(new FormatSegment("<rainbow><message>", null).isTemplate());
+    }
+
+    @Test
+    public void rawMessageOnlyFilledWithMessage() {
+        assertEquals("<hover:show_text:'<message_raw>'>name", new FormatSegment("<hover:show_text:'<message_raw>'>name", null).render(null, "<click:run_command:'/op me'>x"));
+        assertEquals("<message> hi", new FormatSegment("<message> <message_raw>", null).render(null, "hi"));
+    }
+
+    @Test
+    public void serverIsFilledIn() {
+        assertEquals("<gray>[lobby]", new FormatSegment("<gray>[<server>]", "lobby").render(null, ""));
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.features.filter.regex;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares java.util.regex against the filter's regex engine on a rule that makes backtracking engines take exponential time.
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=RegexBacktrackingBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegexBacktrackingBenchmark {
+    // Still backtracks badly on current JDKs, which handle simpler cases like (a+)+$ fine.
+    private static final String RULE = "(x+x+)+y";
+
+    // How many x's are in the message. Without a y at the end, every way of splitting them up gets tried.
+    @Param({"25", "50", "100"})
+    public int length;
+
+    private String message;
+    private Pattern pattern;
+    private RegexProgram program;
+
+    @Setup
+    public void setup() {
+        message = "x".repeat(length);
+        pattern = Pattern.compile(RULE);
+
+        RegexCompiler compiler = new RegexCompiler();
+        compiler.addRule(RULE);
+        program = compiler.compile();
+    }
+
+    @Benchmark
+    public boolean javaRegex() {
+        return pattern.matcher(message).find();
+    }
+
+    @Benchmark
+    public boolean regexProgram() {
+        return program.find(message, Long.MAX_VALUE) != -1;
+    }
+}
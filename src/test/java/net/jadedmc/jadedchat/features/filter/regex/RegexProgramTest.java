@@ -0,0 +1,227 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.features.filter.regex;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the regex filter engine against java.util.regex, and against inputs that make backtracking engines hang.
+ */
+public class RegexProgramTest {
+    // Messages the default rules are compared on. Includes misses, near misses and matches mid-word.
+    private static final String[] MESSAGES = {
+            "", "hello", "hello world", "good game everyone", "nice one", "nigh", "night", "n1gg3r", "niiiggggaaa",
+            "n;g4", "nl:g3r", "fag", "f4g", "f@gg0t", "faggot", "fagot", "f a g", "fa g", "retard", "r3t4rd",
+            "reetard", "rrreetttarrd", "r3tard3d", "retarded person", "FAG", "Retard", "a fag b", "xxfagxx",
+            "ffffffffffffffffffffffffffffffa", "nnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnnni", "naughty", "snigger"
+    };
+
+    // Patterns that take exponential time in a backtracking engine, with input that forces them to fail.
+    private static final String[][] CATASTROPHIC = {
+            {"(a+)+$", "a".repeat(5000) + "!"},
+            {"(a|a)*b", "a".repeat(5000)},
+            {"(a|aa)+$", "a".repeat(5000) + "!"},
+            {"(a*)*b", "a".repeat(5000)},
+            {"(.*a){12}", "a".repeat(11) + "b".repeat(5000)},
+            {"^(\\w+\\s?)*$", "word ".repeat(1000) + "!"},
+            {"(x+x+)+y", "x".repeat(5000)},
+    };
+
+    @Test
+    public void catastrophicPatternsFinishInLinearTime() {
+        for(String[] payload : CATASTROPHIC) {
+            RegexProgram program = compile(payload[0]);
+
+            int result = assertTimeoutPreemptively(Duration.ofSeconds(2), () -> program.find(payload[1], Long.MAX_VALUE), payload[0]);
+            assertEquals(Pattern.compile(payload[0]).matcher(payload[1].substring(0, 200)).find() ? 0 : -1, program.find(payload[1].substring(0, 200), Long.MAX_VALUE), payload[0]);
+            assertNotEquals(RegexProgram.TIMED_OUT, result, payload[0]);
+        }
+    }
+
+    @Test
+    public void budgetStopsLongSearches() {
+        RegexProgram program = compile("(a|b|c|d|e)*z");
+        assertEquals(RegexProgram.TIMED_OUT, program.find("abcde".repeat(200000), System.nanoTime()));
+    }
+
+    @Test
+    public void defaultRulesMatchLikeJavaRegex() throws IOException {
+        List<String> rules = defaultRules();
+        assertFalse(rules.isEmpty(), "filter.yml has no default regex rules");
+
+        for(String rule : rules) {
+            RegexProgram program = compile(rule);
+            Pattern pattern = Pattern.compile(rule);
+
+            for(String message : MESSAGES) {
+                assertEquals(pattern.matcher(message).find(), program.find(message, Long.MAX_VALUE) != -1, rule + " on \"" + message + "\"");
+            }
+        }
+    }
+
+    @Test
+    public void combinedProgramReportsMatchingRule() throws IOException {
+        List<String> rules = defaultRules();
+        RegexCompiler compiler = new RegexCompiler();
+        for(String rule : rules) {
+            compiler.addRule(rule);
+        }
+        RegexProgram program = compiler.compile();
+
+        for(String message : MESSAGES) {
+            int match = program.find(message, Long.MAX_VALUE);
+            boolean expected = rules.stream().anyMatch(rule -> Pattern.compile(rule).matcher(message).find());
+
+            assertEquals(expected, match != -1, message);
+            if(match != -1) {
+                assertTrue(Pattern.compile(rules.get(match)).matcher(message).find(), message);
+            }
+        }
+    }
+
+    @Test
+    public void rulesStartingAnyWayMatchLikeJavaRegex() {
+        // Rules starting with assertions, folded case, non-ASCII characters, or that can match nothing, start attempts differently.
+        String[] rules = {"\\bcat\\b", "^hi", "end$", "(?i)dog", "caf\u00e9+", "[^a-z]x", ".q", "z*"};
+        String[] messages = {"", "concat", "a cat!", "hi there", "oh hi", "the end", "end it", "DoG", "hotdogs", "CAF\u00e9", "caf\u00e9\u00e9", "\u00e9x", "ax", "qq", "q"};
+
+        for(String rule : rules) {
+            RegexProgram program = compile(rule);
+
+            for(String message : messages) {
+                assertEquals(Pattern.compile(rule).matcher(message).find(), program.find(message, Long.MAX_VALUE) != -1, rule + " on \"" + message + "\"");
+            }
+        }
+
+        RegexCompiler compiler = new RegexCompiler();
+        for(String rule : Arrays.copyOf(rules, rules.length - 1)) {
+            compiler.addRule(rule);
+        }
+        RegexProgram program = compiler.compile();
+
+        for(String message : messages) {
+            boolean expected = Arrays.stream(rules, 0, rules.length - 1).anyMatch(rule -> Pattern.compile(rule).matcher(message).find());
+            assertEquals(expected, program.find(message, Long.MAX_VALUE) != -1, message);
+        }
+    }
+
+    @Test
+    public void spansMatchJavaRegex() {
+        String[][] cases = {
+                {"f+a+g", "a fffaag b"},
+                {"\\bcat\\b", "concat cat"},
+                {"(?i)hello", "say HeLLo"},
+                {"[0-9]{3}", "ab12345"},
+        };
+
+        for(String[] testCase : cases) {
+            int[] span = new int[2];
+            java.util.regex.Matcher matcher = Pattern.compile(testCase[0]).matcher(testCase[1]);
+
+            assertTrue(matcher.find(), testCase[0]);
+            assertEquals(0, compile(testCase[0]).find(testCase[1], Long.MAX_VALUE, span), testCase[0]);
+            assertEquals(matcher.end(), span[1], testCase[0]);
+        }
+    }
+
+    @Test
+    public void reusedProgramGivesSameResults() {
+        RegexProgram program = compile("r+(e|3)+(t|7)+(a|4|@)+r+d");
+
+        // Searches share their working memory, so earlier searches must not affect later ones.
+        for(int i = 0; i < 1000; i++) {
+            assertEquals(0, program.find("you r3tard", Long.MAX_VALUE));
+            assertEquals(-1, program.find("you are great", Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    public void unsupportedSyntaxIsRejected() {
+        String[] unsupported = {"(a)\\1", "(?<name>a)\\k<name>", "(?=a)b", "(?!a)b", "(?<=a)b", "(?<!a)b", "a++", "a*+", "(?s)a", "a(?i)b", "(a", "a{2,1}"};
+
+        for(String rule : unsupported) {
+            assertThrows(IllegalArgumentException.class, () -> new RegexCompiler().addRule(rule), rule);
+        }
+    }
+
+    /**
+     * Compiles a single rule.
+     * @param rule Regex of the rule.
+     * @return Compiled program.
+     */
+    private static RegexProgram compile(String rule) {
+        RegexCompiler compiler = new RegexCompiler();
+        compiler.addRule(rule);
+        return compiler.compile();
+    }
+
+    /**
+     * Reads the regex rules shipped in the default filter.yml.
+     * @return Default rules.
+     */
+    private static List<String> defaultRules() throws IOException {
+        List<String> rules = new ArrayList<>();
+
+        try(InputStream stream = RegexProgramTest.class.getResourceAsStream("/filter.yml")) {
+            assertNotNull(stream, "filter.yml is missing");
+            BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+
+            // Only the list under RegexFilter.filter is read.
+            boolean inRegexFilter = false;
+            boolean inList = false;
+            String line;
+            while((line = reader.readLine()) != null) {
+                if(!line.startsWith(" ") && !line.isBlank() && !line.startsWith("#")) {
+                    inRegexFilter = line.startsWith("RegexFilter:");
+                    inList = false;
+                }
+                else if(inRegexFilter && line.startsWith("  filter:")) {
+                    inList = true;
+                }
+                else if(inList && line.trim().startsWith("- ")) {
+                    rules.add(line.trim().substring(2));
+                }
+                else if(inList && !line.isBlank()) {
+                    inList = false;
+                }
+            }
+        }
+
+        return rules;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.features.filter.regex;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares compiling every regex rule for each message against one program compiled when the filter loads.
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=RegexRulesBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegexRulesBenchmark {
+    // Letters that are often swapped for lookalikes, like in the default filter.yml rules.
+    private static final String[][] LOOKALIKES = {{"a", "4", "@"}, {"e", "3"}, {"i", "1", "l"}, {"o", "0"}, {"t", "7"}, {"s", "5", "z"}};
+
+    @Param({"10", "100", "1000"})
+    public int rules;
+
+    // A clean message has to be checked against every rule, so it is the slowest case.
+    @Param({"hey does anyone want to go mining later tonight"})
+    public String message;
+
+    private final List<String> statements = new ArrayList<>();
+    private RegexProgram program;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+
+        for(int i = 0; i < rules; i++) {
+            statements.add(rule(random));
+        }
+
+        RegexCompiler compiler = new RegexCompiler();
+        for(String statement : statements) {
+            compiler.addRule(statement);
+        }
+        program = compiler.compile();
+
+        if(program.find(message, Long.MAX_VALUE) != -1) {
+            throw new IllegalStateException("The message should not match any rule");
+        }
+    }
+
+    @Benchmark
+    public boolean compileEachMessage() {
+        // What RegexFilter used to do for every message.
+        for(String statement : statements) {
+            if(Pattern.compile(statement).matcher(message).find()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Benchmark
+    public boolean combinedProgram() {
+        return program.find(message, Long.MAX_VALUE) == -1;
+    }
+
+    /**
+     * Creates a rule like the defaults, matching a random 5 to 7 letter word with repeated letters and lookalikes.
+     * @param random Random to pick letters with.
+     * @return Regex of the rule.
+     */
+    private static String rule(Random random) {
+        StringBuilder rule = new StringBuilder();
+        int length = 5 + random.nextInt(3);
+
+        for(int i = 0; i < length; i++) {
+            String letter = String.valueOf((char) ('a' + random.nextInt(26)));
+
+            for(String[] lookalikes : LOOKALIKES) {
+                if(lookalikes[0].equals(letter)) {
+                    letter = "(" + String.join("|", lookalikes) + ")";
+                    break;
+                }
+            }
+
+            rule.append(letter).append('+');
+        }
+
+        return rule.toString();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the automaton finds the same occurrences as searching for every pattern on its own.
+ */
+public class AhoCorasickTest {
+
+    @Test
+    public void findsEveryOccurrence() {
+        Random random = new Random(42);
+
+        for(int round = 0; round < 200; round++) {
+            List<String> patterns = new ArrayList<>();
+            for(int i = 0; i < 1 + random.nextInt(12); i++) {
+                patterns.add(randomText(random, 1 + random.nextInt(4)));
+            }
+
+            AhoCorasick automaton = new AhoCorasick(patterns);
+            String text = randomText(random, 60);
+
+            assertEquals(naive(patterns, text), found(automaton, text), "patterns " + patterns + " in " + text);
+        }
+    }
+
+    @Test
+    public void outputsAreLongestFirst() {
+        AhoCorasick automaton = new AhoCorasick(List.of("c", "abc", "bc"));
+        int state = 0;
+        for(char character : "abc".toCharArray()) {
+            state = automaton.next(state, character);
+        }
+
+        assertArrayEquals(new int[]{1, 2, 0}, automaton.outputs(state));
+    }
+
+    @Test
+    public void emptyPatternsKeepTheirPlace() {
+        AhoCorasick automaton = new AhoCorasick(Arrays.asList(null, "", "ab"));
+
+        assertEquals(Set.of(List.of(2, 0)), found(automaton, "ab"));
+        assertEquals(0, automaton.length(0));
+        assertEquals(2, automaton.length(2));
+    }
+
+    /**
+     * Lists every pattern found by the automaton, with where it starts.
+     */
+    private static Set<List<Integer>> found(AhoCorasick automaton, String text) {
+        Set<List<Integer>> found = new HashSet<>();
+        int state = 0;
+
+        for(int index = 0; index < text.length(); index++) {
+            state = automaton.next(state, text.charAt(index));
+
+            for(int pattern : automaton.outputs(state)) {
+                found.add(List.of(pattern, index - automaton.length(pattern) + 1));
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Lists every pattern found with indexOf, with where it starts.
+     */
+    private static Set<List<Integer>> naive(List<String> patterns, String text) {
+        Set<List<Integer>> found = new HashSet<>();
+
+        for(int pattern = 0; pattern < patterns.size(); pattern++) {
+            for(int start = text.indexOf(patterns.get(pattern)); start != -1; start = text.indexOf(patterns.get(pattern), start + 1)) {
+                found.add(List.of(pattern, start));
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Creates text from a small alphabet, so patterns overlap often.
+     */
+    private static String randomText(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for(int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(3)));
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the single pass legacy code translation against the chained replace calls it replaced.
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ChatUtilsBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChatUtilsBenchmark {
+    // The version string replaceLegacy used to parse on every call.
+    private static final String BUKKIT_VERSION = "1.20.4-R0.1-SNAPSHOT";
+
+    @Param({"just a normal chat message with no codes", "&aHello &lthere&r, &7how is it going?", "&#ff8800Orange &#00ffaaand &bAqua"})
+    public String message;
+
+    @Param({"false", "true"})
+    public boolean hex;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        ChatUtilsTest.setHexColors(hex);
+    }
+
+    @TearDown
+    public void tearDown() throws ReflectiveOperationException {
+        ChatUtilsTest.setHexColors(false);
+    }
+
+    @Benchmark
+    public String chainedReplace() {
+        // Checks the server version every call, like the old code did.
+        String version = BUKKIT_VERSION.split("-")[0];
+        int subVersion = Integer.parseInt(version.split("\\.")[1]);
+
+        return ChatUtilsTest.chainedReplace(message, hex && subVersion >= 16);
+    }
+
+    @Benchmark
+    public String singlePass() {
+        return ChatUtils.replaceLegacy(message);
+    }
+}
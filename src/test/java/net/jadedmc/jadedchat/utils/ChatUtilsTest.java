@@ -0,0 +1,183 @@
+/*
+ * This file is part of JadedChat, licensed under the MIT License.
+ *
+ *  Copyright (c) JadedMC
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+package net.jadedmc.jadedchat.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the single pass legacy code translation against the chained replace calls it replaced.
+ */
+public class ChatUtilsTest {
+    private static final String CODES = "0123456789abcdefklmnor";
+
+    @AfterEach
+    public void resetHexColors() throws ReflectiveOperationException {
+        setHexColors(false);
+    }
+
+    @Test
+    public void everyLegacyCode() throws ReflectiveOperationException {
+        for(boolean hex : new boolean[]{false, true}) {
+            setHexColors(hex);
+
+            for(char code : CODES.toCharArray()) {
+                for(String prefix : new String[]{"&", "§"}) {
+                    assertEquivalent(prefix + code, hex);
+                    assertEquivalent("before " + prefix + code + "after", hex);
+                    assertEquivalent(prefix + Character.toUpperCase(code) + " upper", hex);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void mixedCaseCodes() throws ReflectiveOperationException {
+        for(boolean hex : new boolean[]{false, true}) {
+            setHexColors(hex);
+
+            assertEquivalent("&AHello &bthere &CFriend", hex);
+            assertEquivalent("§Lbold §lbold &K&k", hex);
+            assertEquivalent("&#ABCDEFmixed &#abcdef &#AbCdEf", hex);
+        }
+    }
+
+    @Test
+    public void ampersandAtEnd() throws ReflectiveOperationException {
+        for(boolean hex : new boolean[]{false, true}) {
+            setHexColors(hex);
+
+            assertEquivalent("&", hex);
+            assertEquivalent("§", hex);
+            assertEquivalent("Tom &", hex);
+            assertEquivalent("&a&", hex);
+            assertEquivalent("&#12345", hex);
+            assertEquivalent("&#", hex);
+        }
+    }
+
+    @Test
+    public void doubledAmpersands() throws ReflectiveOperationException {
+        for(boolean hex : new boolean[]{false, true}) {
+            setHexColors(hex);
+
+            assertEquivalent("&&", hex);
+            assertEquivalent("&&a", hex);
+            assertEquivalent("&&&a", hex);
+            assertEquivalent("Tom && Jerry", hex);
+            assertEquivalent("§&a&§b", hex);
+            assertEquivalent("&&#123456", hex);
+            assertEquivalent("§#123456", hex);
+        }
+    }
+
+    @Test
+    public void randomMessages() throws ReflectiveOperationException {
+        Random random = new Random(7);
+        String alphabet = "&§#aAbBfFkK0159 xz";
+
+        for(boolean hex : new boolean[]{false, true}) {
+            setHexColors(hex);
+
+            for(int round = 0; round < 5000; round++) {
+                StringBuilder message = new StringBuilder();
+                for(int i = random.nextInt(20); i > 0; i--) {
+                    message.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+
+                assertEquivalent(message.toString(), hex);
+            }
+        }
+    }
+
+    /**
+     * Checks a message translates the same way as before.
+     * @param message Message to translate.
+     * @param hex Whether hex colors are supported.
+     */
+    private static void assertEquivalent(String message, boolean hex) {
+        assertEquals(chainedReplace(message, hex), ChatUtils.replaceLegacy(message), "\"" + message + "\" with hex colors " + (hex ? "on" : "off"));
+    }
+
+    /**
+     * The chained replace calls replaceLegacy used before it was a single pass, with the server version check turned into a parameter.
+     * @param message Message to translate.
+     * @param hex Whether hex colors are supported.
+     * @return Translated message.
+     */
+    static String chainedReplace(String message, boolean hex) {
+        if(hex) {
+            Pattern pattern = Pattern.compile("&#[a-fA-F0-9]{6}");
+            Matcher matcher = pattern.matcher(message);
+
+            while (matcher.find()) {
+                String color = message.substring(matcher.start() + 1, matcher.end());
+                message = message.replace("&" + color, "<reset><color:" + color + ">");
+                matcher = pattern.matcher(message);
+            }
+        }
+
+        return message.replace("§", "&")
+                .replace("&0", "<reset><black>")
+                .replace("&1", "<reset><dark_blue>")
+                .replace("&2", "<reset><dark_green>")
+                .replace("&3", "<reset><dark_aqua>")
+                .replace("&4", "<reset><dark_red>")
+                .replace("&5", "<reset><dark_purple>")
+                .replace("&6", "<reset><gold>")
+                .replace("&7", "<reset><gray>")
+                .replace("&8", "<reset><dark_gray>")
+                .replace("&9", "<reset><blue>")
+                .replace("&a", "<reset><green>")
+                .replace("&b", "<reset><aqua>")
+                .replace("&c", "<reset><red>")
+                .replace("&d", "<reset><light_purple>")
+                .replace("&e", "<reset><yellow>")
+                .replace("&f", "<reset><white>")
+                .replace("&k", "<obfuscated>")
+                .replace("&l", "<bold>")
+                .replace("&m", "<strikethrough>")
+                .replace("&n", "<u>")
+                .replace("&o", "<i>")
+                .replace("&r", "<reset>");
+    }
+
+    /**
+     * Sets whether ChatUtils supports hex colors, which is normally decided by the server version.
+     * @param hex Whether hex colors are supported.
+     */
+    static void setHexColors(boolean hex) throws ReflectiveOperationException {
+        Field field = ChatUtils.class.getDeclaredField("hexColors");
+        field.setAccessible(true);
+        field.setBoolean(null, hex);
+    }
+}